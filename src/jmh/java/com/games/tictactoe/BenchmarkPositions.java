@@ -0,0 +1,167 @@
+package com.games.tictactoe;
+
+import com.games.GameStatusEnum;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds the boards and knowledge that the benchmarks run against.  Everything is built from fixed seeds, so that
+ * every run of a benchmark sees the same data.
+ */
+final class BenchmarkPositions
+{
+
+
+   // Enough positions that the benchmarks don't just measure one well-predicted branch
+   static final int POSITION_COUNT = 1024;
+
+   private static final int CELL_COUNT = 9;
+
+   private static final long POSITION_SEED = 42;
+
+   private static final int TRAINING_GAME_COUNT = 50000;
+   private static final long TRAINING_SEED = 7;
+   private static final int TRAINING_ROUND_SIZE = 500;
+
+   private BenchmarkPositions()
+   {
+   }
+
+   /**
+    * @return boards part way through a game, with at least one move made, where it's the application's turn ('X') and
+    * nobody has won yet
+    */
+   static TicTacToeBoard[] createApplicationToMoveBoards()
+   {
+      final Random random = new Random(POSITION_SEED);
+      final TicTacToeBoard[] returnVal = new TicTacToeBoard[POSITION_COUNT];
+      int boardCount = 0;
+      while (boardCount < returnVal.length)
+      {
+         // An even number of moves, from 2 to 6, so that 'X' moves next with cells still to choose from
+         final TicTacToeBoard board = createRandomBoard(random, 2 * (random.nextInt(3) + 1));
+         if (board != null)
+         {
+            returnVal[boardCount++] = board;
+         }
+      }
+      return returnVal;
+   }
+
+   /**
+    * @return boards in every stage of a game, from empty to full, including won games
+    */
+   static TicTacToeBoard[] createMixedBoards()
+   {
+      final Random random = new Random(POSITION_SEED);
+      final TicTacToeBoard[] returnVal = new TicTacToeBoard[POSITION_COUNT];
+      for (int i = 0; i < returnVal.length; i++)
+      {
+         final TicTacToeBoard board = new TicTacToeBoard();
+         final int moveCount = random.nextInt(CELL_COUNT + 1);
+         for (int moveNumber = 0; moveNumber < moveCount && board.getGameStatus() == GameStatusEnum.ONGOING; moveNumber++)
+         {
+            applyRandomMove(board, random, moveNumber);
+         }
+         returnVal[i] = board;
+      }
+      return returnVal;
+   }
+
+   /**
+    * @return a store holding what the application learns from a fixed run of training games.  It's never written to a
+    * file
+    */
+   static TicTacToeKnowledgeStore createTrainedStore()
+   {
+      final TicTacToeKnowledgeStore returnVal = TicTacToeKnowledgeStore.createInMemory();
+      new TicTacToeParallelTrainer(new TicTacToeManager(returnVal), TicTacToeOpponentEnum.TACTICAL,
+            Runtime.getRuntime().availableProcessors(), TRAINING_ROUND_SIZE).train(TRAINING_GAME_COUNT, TRAINING_SEED);
+      return returnVal;
+   }
+
+   /**
+    * There are only 123,309 distinct canonical sequences in all, so no more than that may be asked for.
+    *
+    * @param pCount the number of sequences wanted
+    * @return distinct canonical move sequences, as found by a depth-first walk of every game
+    */
+   static long[] createCanonicalSequences(final int pCount)
+   {
+      final List<Long> found = new ArrayList<>(pCount);
+      collectCanonicalSequences(0L, 0, pCount, found);
+      if (found.size() < pCount)
+      {
+         throw new IllegalArgumentException("there are not that many canonical sequences. count=" + pCount);
+      }
+      final long[] returnVal = new long[pCount];
+      for (int i = 0; i < pCount; i++)
+      {
+         returnVal[i] = found.get(i);
+      }
+      return returnVal;
+   }
+
+   /**
+    * @param pSequence    the packed moves so far
+    * @param pOccupied    a mask of the cells taken by those moves
+    * @param pCount       the number of sequences wanted
+    * @param pFound       the sequences found so far
+    */
+   private static void collectCanonicalSequences(final long pSequence, final int pOccupied, final int pCount,
+                                                 final List<Long> pFound)
+   {
+      for (int cellNumber = 1; cellNumber <= CELL_COUNT && pFound.size() < pCount; cellNumber++)
+      {
+         final int cellBit = 1 << (cellNumber - 1);
+         if ((pOccupied & cellBit) != 0)
+         {
+            continue;
+         }
+         final long sequence = TicTacToeMoveSequence.append(pSequence, cellNumber);
+         if (TicTacToeSymmetry.canonicalize(sequence) == sequence)
+         {
+            pFound.add(sequence);
+            collectCanonicalSequences(sequence, pOccupied | cellBit, pCount, pFound);
+         }
+      }
+   }
+
+   /**
+    * @param pRandom    the source of the moves
+    * @param pMoveCount the number of moves to make
+    * @return a board with the given number of random moves made, or null if somebody won along the way
+    */
+   private static TicTacToeBoard createRandomBoard(final Random pRandom, final int pMoveCount)
+   {
+      final TicTacToeBoard returnVal = new TicTacToeBoard();
+      for (int moveNumber = 0; moveNumber < pMoveCount; moveNumber++)
+      {
+         applyRandomMove(returnVal, pRandom, moveNumber);
+         if (returnVal.getGameStatus() != GameStatusEnum.ONGOING)
+         {
+            return null;
+         }
+      }
+      return returnVal;
+   }
+
+   /**
+    * @param pBoard      the board to move on; must have an empty cell
+    * @param pRandom     the source of the move
+    * @param pMoveNumber the 0-based number of the move, which decides whose move it is
+    */
+   private static void applyRandomMove(final TicTacToeBoard pBoard, final Random pRandom, final int pMoveNumber)
+   {
+      final int emptyCells = pBoard.getEmptyMask();
+      int chosenCell = Integer.numberOfTrailingZeros(emptyCells);
+      for (int skipCount = pRandom.nextInt(Integer.bitCount(emptyCells)); skipCount > 0; skipCount--)
+      {
+         chosenCell = Integer.numberOfTrailingZeros(emptyCells & (-1 << (chosenCell + 1)));
+      }
+      final CellStatusEnum cellStatus = pMoveNumber % 2 == 0 ? CellStatusEnum.X_SELECTED : CellStatusEnum.O_SELECTED;
+      pBoard.applyChosenMove(TicTacToeMove.of(chosenCell + 1, cellStatus));
+   }
+}
@@ -0,0 +1,79 @@
+package com.games.tictactoe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the board queries made on every move.  Each call works on the next of a fixed set of boards, taken
+ * from every stage of a game, so that the results aren't skewed by a single easy position.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicTacToeBoardBenchmark
+{
+
+
+   private TicTacToeBoard[] fBoards;
+   private int fNextBoard;
+
+   @Setup
+   public void setUp()
+   {
+      fBoards = BenchmarkPositions.createMixedBoards();
+   }
+
+   @Benchmark
+   public boolean isGameWon()
+   {
+      return nextBoard().isGameWon(CellStatusEnum.X_SELECTED);
+   }
+
+   @Benchmark
+   public List<Integer> getCellsOfGivenStatus()
+   {
+      return nextBoard().getCellsOfGivenStatus(CellStatusEnum.UNSELECTED);
+   }
+
+   // The same cells as getCellsOfGivenStatus(), walked from the mask the board keeps, as the move choosers do
+   @Benchmark
+   public int walkEmptyMask()
+   {
+      int returnVal = 0;
+      for (int emptyCells = nextBoard().getEmptyMask(); emptyCells != 0; emptyCells &= emptyCells - 1)
+      {
+         returnVal += Integer.numberOfTrailingZeros(emptyCells) + 1;
+      }
+      return returnVal;
+   }
+
+   @Benchmark
+   public int getEmptyCellCount()
+   {
+      return nextBoard().getEmptyCellCount();
+   }
+
+   /**
+    * @return the next board in the set, starting over once they've all been used
+    */
+   private TicTacToeBoard nextBoard()
+   {
+      final TicTacToeBoard returnVal = fBoards[fNextBoard];
+      fNextBoard = (fNextBoard + 1) & (BenchmarkPositions.POSITION_COUNT - 1);
+      return returnVal;
+   }
+}
@@ -0,0 +1,194 @@
+package com.games.tictactoe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for loading the knowledge from its files at startup, and for writing them back out.
+ * <p>
+ * Each benchmark gets its own temporary data directory (see the "ttt.dataDir" system property), holding a concise log
+ * of distinct canonical sequences.  There are only 123,309 such sequences in all, so that's the largest size
+ * measured: a full knowledge of every line of play.
+ * <p>
+ * Each benchmark runs in its own forked JVM, so the system property set by one benchmark's state never leaks into
+ * another's.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TicTacToeKnowledgeFileBenchmark
+{
+
+
+   private static final String PROPERTY_DATA_DIRECTORY = "ttt.dataDir";
+
+   @Benchmark
+   public TicTacToeKnowledgeStore loadConciseLog(final ConciseLogOnly pFiles)
+   {
+      return TicTacToeKnowledgeStore.loadFromLogFiles();
+   }
+
+   @Benchmark
+   public TicTacToeKnowledgeStore loadWithKnowledgeFile(final WithKnowledgeFile pFiles)
+   {
+      return TicTacToeKnowledgeStore.loadFromLogFiles();
+   }
+
+   @Benchmark
+   public void compactLogFiles(final LoadedStore pLoadedStore)
+   {
+      pLoadedStore.fKnowledgeStore.compactLogFiles();
+   }
+
+   @Benchmark
+   public void writeKnowledgeFile(final LoadedStore pLoadedStore)
+   {
+      pLoadedStore.fKnowledgeStore.writeKnowledgeFile();
+   }
+
+   /**
+    * A data directory holding only the concise log, so that every line is parsed at load
+    */
+   @State(Scope.Benchmark)
+   public static class ConciseLogOnly
+   {
+      @Param({"1000", "100000", "123309"})
+      public int fEntryCount;
+
+      File fDataDirectory;
+
+      @Setup(Level.Trial)
+      public void setUp() throws IOException
+      {
+         fDataDirectory = createDataDirectory(fEntryCount);
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown()
+      {
+         deleteDataDirectory(fDataDirectory);
+      }
+   }
+
+   /**
+    * A data directory holding the concise log and a binary knowledge file that covers all of it, so that nothing is
+    * parsed at load
+    */
+   @State(Scope.Benchmark)
+   public static class WithKnowledgeFile
+   {
+      @Param({"1000", "100000", "123309"})
+      public int fEntryCount;
+
+      File fDataDirectory;
+
+      @Setup(Level.Trial)
+      public void setUp() throws IOException
+      {
+         fDataDirectory = createDataDirectory(fEntryCount);
+         TicTacToeKnowledgeStore.loadFromLogFiles().writeKnowledgeFile();
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown()
+      {
+         deleteDataDirectory(fDataDirectory);
+      }
+   }
+
+   /**
+    * A store loaded from a concise log, ready to be written back out
+    */
+   @State(Scope.Benchmark)
+   public static class LoadedStore
+   {
+      @Param({"1000", "100000", "123309"})
+      public int fEntryCount;
+
+      File fDataDirectory;
+      TicTacToeKnowledgeStore fKnowledgeStore;
+
+      @Setup(Level.Trial)
+      public void setUp() throws IOException
+      {
+         fDataDirectory = createDataDirectory(fEntryCount);
+         fKnowledgeStore = TicTacToeKnowledgeStore.loadFromLogFiles();
+      }
+
+      /**
+       * Compaction hands the verbose log to its background writer; wait for it here, outside of the measurement, so
+       * that rewrites don't pile up behind the benchmark
+       */
+      @TearDown(Level.Invocation)
+      public void waitForVerboseLog()
+      {
+         fKnowledgeStore.exportVerboseLog();
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown()
+      {
+         deleteDataDirectory(fDataDirectory);
+      }
+   }
+
+   /**
+    * Create a temporary data directory holding a concise log of the given number of entries, and point the knowledge
+    * files at it
+    *
+    * @param pEntryCount the number of entries to write to the concise log
+    * @return the new directory
+    * @throws IOException if the directory or the log could not be written
+    */
+   private static File createDataDirectory(final int pEntryCount) throws IOException
+   {
+      final File returnVal = Files.createTempDirectory("ttt-benchmark").toFile();
+      try (BufferedWriter writer = Files.newBufferedWriter(new File(returnVal, "tttConcise.log").toPath(),
+            StandardCharsets.UTF_8))
+      {
+         for (long sequence : BenchmarkPositions.createCanonicalSequences(pEntryCount))
+         {
+            writer.write(TicTacToeMoveSequence.toConciseString(sequence));
+            writer.write('\n');
+         }
+      }
+      System.setProperty(PROPERTY_DATA_DIRECTORY, returnVal.getPath());
+      return returnVal;
+   }
+
+   /**
+    * @param pDataDirectory a directory made by createDataDirectory(), to delete along with everything in it
+    */
+   private static void deleteDataDirectory(final File pDataDirectory)
+   {
+      final File[] files = pDataDirectory.listFiles();
+      if (files != null)
+      {
+         for (File file : files)
+         {
+            file.delete();
+         }
+      }
+      pDataDirectory.delete();
+   }
+}
@@ -0,0 +1,73 @@
+package com.games.tictactoe;
+
+import com.games.IGameMove;
+import com.games.PlayerEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the application's side of a game: choosing a move against trained knowledge, and finding the
+ * canonical form of a move sequence, which every knowledge lookup and every saved loss goes through.
+ * <p>
+ * The knowledge is trained in memory before the benchmarks start, so nothing is read from or written to the log
+ * files.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicTacToeManagerBenchmark
+{
+
+
+   private TicTacToeManager fGameManager;
+   private TicTacToeBoard[] fBoards;
+   private long[] fSequences;
+   private int fNext;
+
+   @Setup
+   public void setUp()
+   {
+      fGameManager = new TicTacToeManager(BenchmarkPositions.createTrainedStore());
+      fBoards = BenchmarkPositions.createApplicationToMoveBoards();
+      fSequences = new long[fBoards.length];
+      for (int i = 0; i < fBoards.length; i++)
+      {
+         fSequences[i] = TicTacToeMoveSequence.fromMoves(fBoards[i].getMoveHistory());
+      }
+   }
+
+   @Benchmark
+   public IGameMove getNextMove()
+   {
+      return fGameManager.getNextMove(PlayerEnum.APPLICATION, fBoards[nextIndex()]);
+   }
+
+   @Benchmark
+   public long canonicalize()
+   {
+      return TicTacToeSymmetry.canonicalize(fSequences[nextIndex()]);
+   }
+
+   /**
+    * @return the index of the next position to use, starting over once they've all been used
+    */
+   private int nextIndex()
+   {
+      final int returnVal = fNext;
+      fNext = (fNext + 1) & (BenchmarkPositions.POSITION_COUNT - 1);
+      return returnVal;
+   }
+}
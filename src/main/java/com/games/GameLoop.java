@@ -0,0 +1,72 @@
+package com.games;
+
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.BiConsumer;
+
+/**
+ * The loop that plays a single game between the application and its opponent, with the application going first.
+ * <p>
+ * Every game is played through here, however it's run; the callers differ only in where the opponent's moves come
+ * from, how the random choices are seeded, and what is done with the results of each game.
+ */
+public final class GameLoop
+{
+
+
+   private GameLoop()
+   {
+      // static methods only
+   }
+
+   /**
+    * @param pGameManager the manager that makes the application's moves and works out the status of the game
+    * @param pGameBoard   the board to play on; reset before the game starts
+    * @param pOpponent    the source of the opponent's moves, in place of the human
+    * @param pRandom      the source of all random choices in this game, the application's and the opponent's
+    * @param pResultsSink given the board and the final status once the game is over, before this returns, such as to
+    *                     save the results
+    * @return the final status of the game.  Will not return null
+    */
+   public static GameStatusInfo playOneGame(final IGameManager pGameManager, final IGameBoard pGameBoard,
+                                            final IGameOpponent pOpponent, final Random pRandom,
+                                            final BiConsumer<IGameBoard, GameStatusInfo> pResultsSink)
+   {
+      Objects.requireNonNull(pGameManager, "game manager may not be null");
+      Objects.requireNonNull(pGameBoard, "game board may not be null");
+      Objects.requireNonNull(pOpponent, "opponent may not be null");
+      Objects.requireNonNull(pRandom, "random may not be null");
+      Objects.requireNonNull(pResultsSink, "results sink may not be null");
+
+      PlayerEnum currentPlayer = PlayerEnum.APPLICATION;
+      pGameBoard.reset();
+      while (true)
+      {
+         // 1. Get the next move
+         final IGameMove gameMove = currentPlayer == PlayerEnum.APPLICATION
+               ? pGameManager.getApplicationMove(pGameBoard, pRandom)
+               : pOpponent.getNextMove(pGameBoard, pRandom);
+
+         // 2. Apply the move (maybe) and get the resulting status
+         final GameStatusInfo gameStatusInfo;
+         if (gameMove.isChooseToStop())
+         {
+            // It could be that the opponent quit, or that the application has given up
+            gameStatusInfo = new GameStatusInfo(currentPlayer, GameStatusEnum.QUIT);
+         }
+         else
+         {
+            pGameBoard.applyChosenMove(gameMove);
+            gameStatusInfo = pGameManager.getGameStatusInfo(currentPlayer, pGameBoard);
+         }
+
+         // 3. Hand over the results if the game is over, or else change to the next player
+         if (gameStatusInfo.getGameStatus().isGameOver())
+         {
+            pResultsSink.accept(pGameBoard, gameStatusInfo);
+            return gameStatusInfo;
+         }
+         currentPlayer = currentPlayer == PlayerEnum.APPLICATION ? PlayerEnum.HUMAN : PlayerEnum.APPLICATION;
+      }
+   }
+}
@@ -0,0 +1,80 @@
+package com.games;
+
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Plays games between the application and a scripted opponent, without rendering anything or reading from the console.
+ * <p>
+ * The opponent takes the place of the human player, so the application learns from these games exactly as it does
+ * from interactive games.
+ */
+public class GameSimulator
+{
+
+
+   private final IGameManager fGameManager;
+   private final IGameOpponent fOpponent;
+
+   /**
+    * @param pGameManager the manager for the game to simulate
+    * @param pOpponent    the opponent that plays in place of the human
+    */
+   public GameSimulator(final IGameManager pGameManager, final IGameOpponent pOpponent)
+   {
+      fGameManager = Objects.requireNonNull(pGameManager, "game manager may not be null");
+      fOpponent = Objects.requireNonNull(pOpponent, "opponent may not be null");
+   }
+
+   /**
+    * @param pGameCount the number of games to play
+    * @param pSeed      the seed for all random choices, both the application's and the opponent's
+    * @return a summary of the run.  Will not return null
+    */
+   public SimulationResults simulate(final int pGameCount, final long pSeed)
+   {
+      if (pGameCount < 0)
+      {
+         throw new IllegalArgumentException("game count may not be negative. gameCount=" + pGameCount);
+      }
+
+      final Random random = new Random(pSeed);
+      int wins = 0;
+      int losses = 0;
+      int ties = 0;
+      int quits = 0;
+
+      // One board is used for every game, and reset between them
+      final IGameBoard gameBoard = fGameManager.getNewGameBoard();
+
+      final long startNanos = System.nanoTime();
+      for (int gameNumber = 0; gameNumber < pGameCount; gameNumber++)
+      {
+         final GameStatusInfo gameStatusInfo = GameLoop.playOneGame(fGameManager, gameBoard, fOpponent, random,
+               fGameManager::saveResults);
+         switch (gameStatusInfo.getGameStatus())
+         {
+            case WON:
+               if (gameStatusInfo.getFinalPlayer() == PlayerEnum.APPLICATION)
+               {
+                  wins++;
+               }
+               else
+               {
+                  losses++;
+               }
+               break;
+            case TIE:
+               ties++;
+               break;
+            default:
+               quits++;
+               break;
+         }
+      }
+      final long elapsedNanos = System.nanoTime() - startNanos;
+
+      return new SimulationResults(pGameCount, wins, losses, ties, quits, elapsedNanos, fGameManager.getKnowledgeSize());
+   }
+
+}
@@ -15,6 +15,11 @@ public interface IGameBoard
     */
    void applyChosenMove(IGameMove pMove);
 
+   /**
+    * Clear the board, so that it can be used for a new game rather than building a new board
+    */
+   void reset();
+
    /**
     *
     * @return the history of moves
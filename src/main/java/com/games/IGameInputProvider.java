@@ -0,0 +1,14 @@
+package com.games;
+
+/**
+ * Contract for a source of the human player's input, such as the console or a script of recorded input
+ */
+public interface IGameInputProvider
+{
+
+   /**
+    * @return the next line of input, without its line terminator, or null if there is no more input
+    */
+   String readLine();
+
+}
@@ -1,5 +1,7 @@
 package com.games;
 
+import java.util.Random;
+
 /**
  * Contract for managing a particular game
  *
@@ -23,6 +25,14 @@ public interface IGameManager
     */
    IGameMove getNextMove(PlayerEnum fPlayer, IGameBoard pGameBoard);
 
+   /**
+    *
+    * @param pGameBoard the game board to use
+    * @param pRandom    the source of the application's random choices, so that a run can be reproduced from its seed
+    * @return the next move for the application.  It may indicate that the application quits.  Will not return null
+    */
+   IGameMove getApplicationMove(IGameBoard pGameBoard, Random pRandom);
+
    /**
     *
     * @param pFinalPlayer
@@ -51,4 +61,19 @@ public interface IGameManager
     * Save the results of the game playing to a file
     */
    void saveResults(IGameBoard pGameBoard, final GameStatusInfo pGameStatusInfo);
+
+
+   /**
+    *
+    * @return the number of entries the application has learned so far (e.g., moves to avoid)
+    */
+   int getKnowledgeSize();
+
+   /**
+    *
+    * @param pOpponentName the name of a scripted opponent for this game
+    * @return the scripted opponent with the given name
+    * @throws IllegalArgumentException if this game has no opponent with the given name
+    */
+   IGameOpponent getScriptedOpponent(String pOpponentName);
 }
@@ -0,0 +1,18 @@
+package com.games;
+
+import java.util.Random;
+
+/**
+ * Contract for a scripted opponent, which plays in place of the human when games are run without a console
+ */
+public interface IGameOpponent
+{
+
+   /**
+    * @param pGameBoard the game board to use
+    * @param pRandom    the source of any random choices, so that a run can be reproduced from its seed
+    * @return the next move for the opponent.  Will not return null
+    */
+   IGameMove getNextMove(IGameBoard pGameBoard, Random pRandom);
+
+}
@@ -0,0 +1,60 @@
+package com.games;
+
+/**
+ * Helper class for parsing what the user types, without splitting it into Strings or using regular expressions, so
+ * that reading a move allocates nothing
+ */
+public final class InputParsingHelper
+{
+
+
+   private InputParsingHelper()
+   {
+      // static methods only
+   }
+
+   /**
+    * Parse the numbers in the given line from the given index, separated by commas and/or spaces, such as "2 3" or
+    * "2,3", without splitting the line into Strings.  Any numbers past the size of the given array are ignored.  Used
+    * for the moves typed by the human, and for the numbers after a command, such as TicTacToeServer's MOVE
+    *
+    * @param pInputLine the line to parse
+    * @param pStart     the index in the line to start parsing at
+    * @param pNumbers   receives the numbers, in order
+    * @return the number of numbers found, up to the size of the given array, or -1 if something other than a number
+    * was found first
+    */
+   public static int parseNumbers(final String pInputLine, final int pStart, final int[] pNumbers)
+   {
+      int numberCount = 0;
+      int i = pStart;
+      final int length = pInputLine.length();
+      while (numberCount < pNumbers.length)
+      {
+         while (i < length && (pInputLine.charAt(i) == ',' || Character.isWhitespace(pInputLine.charAt(i))))
+         {
+            i++;
+         }
+         if (i == length)
+         {
+            break;
+         }
+
+         int value = 0;
+         final int start = i;
+         while (i < length && pInputLine.charAt(i) >= '0' && pInputLine.charAt(i) <= '9')
+         {
+            // Saturate, rather than overflow, so that a long run of digits is reported as out of range
+            value = Math.min(value * 10 + (pInputLine.charAt(i) - '0'), Integer.MAX_VALUE / 10);
+            i++;
+         }
+         final boolean isEndOfNumber = i == length || pInputLine.charAt(i) == ',' || Character.isWhitespace(pInputLine.charAt(i));
+         if (i == start || !isEndOfNumber)
+         {
+            return -1;
+         }
+         pNumbers[numberCount++] = value;
+      }
+      return numberCount;
+   }
+}
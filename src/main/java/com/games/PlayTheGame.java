@@ -1,9 +1,19 @@
 package com.games;
 
 
+import com.games.mnk.MnkGeometry;
+import com.games.mnk.MnkManager;
+import com.games.tictactoe.TicTacToeKnowledgeStore;
 import com.games.tictactoe.TicTacToeManager;
+import com.games.tictactoe.TicTacToeMetrics;
+import com.games.tictactoe.TicTacToeParallelTrainer;
+import com.games.tictactoe.TicTacToeServer;
+import com.games.tictactoe.TicTacToeStrategyEnum;
 
-import java.util.Scanner;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
 
 /**
  * This class provides static methods to satisfy the requirements of the following exercise:
@@ -28,124 +38,439 @@ import java.util.Scanner;
  * - JDK version: The application supports Java 8
  * - Testing: This code does not include assertions or junit tests; such checks could be added per project standards
  * - Results are saved in simple text files in the directory where the application is run.
+ * <p>
+ * Besides the interactive game, a headless simulation can be run from the command line, in which the application
+ * plays a scripted opponent and only a summary is rendered:
+ * <pre>
+ *    --simulate &lt;gameCount&gt; [--opponent random|first_available|tactical] [--seed &lt;number&gt;]
+ * </pre>
+ * The same games can be spread over many threads for training, in which case the learned moves to avoid depend only
+ * on the seed, the game count and the round size, and not on the number of threads:
+ * <pre>
+ *    --train &lt;gameCount&gt; [--threads &lt;number&gt;] [--round-size &lt;number&gt;] [--opponent ...] [--seed &lt;number&gt;]
+ * </pre>
+ * Once a lot has been learned, the text log can be converted to a binary knowledge file, which is memory-mapped at
+ * startup rather than read line by line:
+ * <pre>
+ *    --convert-knowledge
+ * </pre>
+ * Input recorded from earlier games (exactly what the human typed, one entry per line) can be replayed through the
+ * interactive game at full speed:
+ * <pre>
+ *    --replay &lt;scriptFile&gt; [--quiet]
+ * </pre>
+ * With --quiet, nothing is rendered while the games are replayed, and only a summary is rendered at the end.
+ * Games can also be served to many players at once, over a line protocol on localhost (see TicTacToeServer), with
+ * all of the sessions sharing what is learned:
+ * <pre>
+ *    --server &lt;port&gt; [--max-sessions &lt;number&gt;]
+ * </pre>
+ * Each open session holds a thread, so at most --max-sessions of them (256 by default) are open at once; any more
+ * connections are refused until some sessions end.  Once the server has started, nothing more is rendered to the
+ * console, other than logging.
+ * By default, the application learns from its losses.  Instead, it can play perfectly from the first game, in the
+ * interactive game or with any of the options above:
+ * <pre>
+ *    --strategy learning|solver|opening_book
+ * </pre>
+ * The verbose log is written in the background while playing; it can also be regenerated in full:
+ * <pre>
+ *    --export-verbose
+ * </pre>
+ * Entries that can no longer change how the application plays (those under a shorter sequence to avoid, and those
+ * that all follow from one earlier move to avoid) are dropped as the knowledge grows.  They can also be dropped from
+ * everything learned so far, rewriting the log files:
+ * <pre>
+ *    --compact
+ * </pre>
+ * The interactive game and the server publish their metrics over JMX while they run (see TicTacToeMetrics).  With
+ * any of the options above, a report of the metrics can also be rendered once the run is over.  The metrics of
+ * --simulate and --train runs are only recorded when this is given:
+ * <pre>
+ *    --metrics
+ * </pre>
+ * Instead of TicTacToe, the interactive game, --simulate and --replay can play any m,n,k game: a board of m rows and
+ * n columns, won by the first to get k in a row.  On these boards, the application plays tactically rather than
+ * learning, so --strategy doesn't apply:
+ * <pre>
+ *    --board &lt;rows&gt;,&lt;columns&gt;,&lt;winLength&gt;
+ * </pre>
  */
 public class PlayTheGame
 {
 
+   private static final String OPTION_SIMULATE = "--simulate";
+   private static final String OPTION_OPPONENT = "--opponent";
+   private static final String OPTION_SEED = "--seed";
+   private static final String OPTION_TRAIN = "--train";
+   private static final String OPTION_THREADS = "--threads";
+   private static final String OPTION_ROUND_SIZE = "--round-size";
+   private static final String OPTION_CONVERT_KNOWLEDGE = "--convert-knowledge";
+   private static final String OPTION_EXPORT_VERBOSE = "--export-verbose";
+   private static final String OPTION_COMPACT = "--compact";
+   private static final String OPTION_SERVER = "--server";
+   private static final String OPTION_MAX_SESSIONS = "--max-sessions";
+   private static final String OPTION_REPLAY = "--replay";
+   private static final String OPTION_QUIET = "--quiet";
+   private static final String OPTION_STRATEGY = "--strategy";
+   private static final String OPTION_METRICS = "--metrics";
+   private static final String OPTION_BOARD = "--board";
+
+   private static final String DEFAULT_OPPONENT = "random";
+   private static final String DEFAULT_STRATEGY = "learning";
+   private static final int DEFAULT_ROUND_SIZE = 4096;
+
    public static void main(String[] pArgs)
    {
-      play();
+      final String simulateValue = getOptionValue(pArgs, OPTION_SIMULATE);
+      final String trainValue = getOptionValue(pArgs, OPTION_TRAIN);
+      final String opponentName = getOptionValue(pArgs, OPTION_OPPONENT);
+      final String seedValue = getOptionValue(pArgs, OPTION_SEED);
+      final String serverValue = getOptionValue(pArgs, OPTION_SERVER);
+      final String replayValue = getOptionValue(pArgs, OPTION_REPLAY);
+      final String strategyName = getOptionValue(pArgs, OPTION_STRATEGY);
+      final String boardValue = getOptionValue(pArgs, OPTION_BOARD);
+      final TicTacToeStrategyEnum strategy = TicTacToeStrategyEnum.forName(strategyName == null ? DEFAULT_STRATEGY : strategyName);
+      final MnkGeometry geometry = boardValue == null ? MnkGeometry.TIC_TAC_TOE : getBoardGeometry(boardValue);
+      if ((simulateValue != null || trainValue != null) && !isOptionGiven(pArgs, OPTION_METRICS)
+            && System.getProperty(TicTacToeMetrics.PROPERTY_ENABLED) == null)
+      {
+         // Nobody reads the metrics of a batch run unless they're rendered at the end, so don't pay for recording them.
+         // This must be set before TicTacToeMetrics is first used
+         System.setProperty(TicTacToeMetrics.PROPERTY_ENABLED, "false");
+      }
+      if (!isTicTacToe(geometry) && (strategyName != null || trainValue != null || serverValue != null
+            || isOptionGiven(pArgs, OPTION_CONVERT_KNOWLEDGE) || isOptionGiven(pArgs, OPTION_EXPORT_VERBOSE)
+            || isOptionGiven(pArgs, OPTION_COMPACT)))
+      {
+         throw new IllegalArgumentException(OPTION_BOARD + " other than 3,3,3 only works with the interactive game, "
+               + OPTION_SIMULATE + " and " + OPTION_REPLAY + ". board=" + boardValue);
+      }
+      if (simulateValue != null)
+      {
+         simulate(Integer.parseInt(simulateValue),
+               opponentName == null ? DEFAULT_OPPONENT : opponentName,
+               seedValue == null ? System.nanoTime() : Long.parseLong(seedValue),
+               strategy, geometry);
+      }
+      else if (trainValue != null)
+      {
+         final String threadsValue = getOptionValue(pArgs, OPTION_THREADS);
+         final String roundSizeValue = getOptionValue(pArgs, OPTION_ROUND_SIZE);
+         train(Integer.parseInt(trainValue),
+               opponentName == null ? DEFAULT_OPPONENT : opponentName,
+               seedValue == null ? System.nanoTime() : Long.parseLong(seedValue),
+               threadsValue == null ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(threadsValue),
+               roundSizeValue == null ? DEFAULT_ROUND_SIZE : Integer.parseInt(roundSizeValue),
+               strategy);
+      }
+      else if (replayValue != null)
+      {
+         replay(replayValue, isOptionGiven(pArgs, OPTION_QUIET), strategy, geometry);
+      }
+      else if (serverValue != null)
+      {
+         final String maxSessionsValue = getOptionValue(pArgs, OPTION_MAX_SESSIONS);
+         serve(Integer.parseInt(serverValue),
+               maxSessionsValue == null ? TicTacToeServer.DEFAULT_MAX_SESSIONS : Integer.parseInt(maxSessionsValue),
+               strategy);
+      }
+      else if (isOptionGiven(pArgs, OPTION_CONVERT_KNOWLEDGE))
+      {
+         convertKnowledge();
+      }
+      else if (isOptionGiven(pArgs, OPTION_EXPORT_VERBOSE))
+      {
+         exportVerboseLog();
+      }
+      else if (isOptionGiven(pArgs, OPTION_COMPACT))
+      {
+         compactKnowledge();
+      }
+      else
+      {
+         final IGameInputProvider inputProvider = StreamGameInputProvider.getConsole();
+         TicTacToeMetrics.getInstance().registerMBean();
+         play(getGameToPlay(inputProvider, strategy, geometry), inputProvider);
+      }
+
+      if (isOptionGiven(pArgs, OPTION_METRICS))
+      {
+         for (String reportLine : TicTacToeMetrics.getInstance().getReport().split("\n"))
+         {
+            RenderingHelper.renderOutputLine(reportLine);
+         }
+      }
    }
 
 
    /**
-    * Wrapper method for running the exercise
+    * Play the given number of games against a scripted opponent, rendering only a final summary
+    *
+    * @param pGameCount    the number of games to play
+    * @param pOpponentName the name of the scripted opponent
+    * @param pSeed         the seed for all random choices, so that a run can be repeated
+    * @param pStrategy     how the application chooses its moves
+    * @param pGeometry     the shape of the board to play on
     */
-   private static void play()
+   private static void simulate(final int pGameCount, final String pOpponentName, final long pSeed,
+                                final TicTacToeStrategyEnum pStrategy, final MnkGeometry pGeometry)
    {
+      IGameManager gameManager = getGameToPlay(StreamGameInputProvider.getConsole(), pStrategy, pGeometry);
+      GameSimulator simulator = new GameSimulator(gameManager, gameManager.getScriptedOpponent(pOpponentName));
+      SimulationResults results = simulator.simulate(pGameCount, pSeed);
 
-      /*
-         This method could support other games, besides TicTacToe.
-         For now, tic-tac-toe is is the only supported implementation of IGameManager
-       */
-      IGameManager gameManager = getGameToPlay();
-      gameManager.introduceGameAndRules();
+      RenderingHelper.renderOutputLine("Simulated " + results.getGamesPlayed() + " games against '" + pOpponentName
+            + "' in " + (results.getElapsedNanos() / 1_000_000) + " ms (" + Math.round(results.getGamesPerSecond()) + " games/sec)");
+      renderResultCounts(results);
+   }
 
-      // Loop through (potentially) multiple games
-      boolean isStillPlayingAdditionalGames = true;
-      while (isStillPlayingAdditionalGames)
+   /**
+    * Play the given number of training games against a scripted opponent on several threads, rendering only a
+    * final summary
+    *
+    * @param pGameCount    the number of games to play
+    * @param pOpponentName the name of the scripted opponent
+    * @param pSeed         the seed for all random choices
+    * @param pThreadCount  the number of threads to play on
+    * @param pRoundSize    the number of games played between merges of the learned moves
+    * @param pStrategy     how the application chooses its moves
+    */
+   private static void train(final int pGameCount, final String pOpponentName, final long pSeed, final int pThreadCount,
+                             final int pRoundSize, final TicTacToeStrategyEnum pStrategy)
+   {
+      TicTacToeManager gameManager = getGameToPlay(StreamGameInputProvider.getConsole(), pStrategy);
+      TicTacToeParallelTrainer trainer = new TicTacToeParallelTrainer(gameManager,
+            gameManager.getScriptedOpponent(pOpponentName), pThreadCount, pRoundSize);
+      SimulationResults results = trainer.train(pGameCount, pSeed);
+
+      RenderingHelper.renderOutputLine("Trained on " + results.getGamesPlayed() + " games against '" + pOpponentName
+            + "' with " + pThreadCount + " threads in " + (results.getElapsedNanos() / 1_000_000) + " ms ("
+            + Math.round(results.getGamesPerSecond()) + " games/sec)");
+      renderResultCounts(results);
+   }
+
+   /**
+    * Play the interactive game, with the human's input read from the given script rather than the console
+    *
+    * @param pScriptFileName the file of recorded input to replay
+    * @param pQuiet          true to render nothing but a summary at the end
+    * @param pStrategy       how the application chooses its moves
+    * @param pGeometry       the shape of the board to play on
+    */
+   private static void replay(final String pScriptFileName, final boolean pQuiet, final TicTacToeStrategyEnum pStrategy,
+                              final MnkGeometry pGeometry)
+   {
+      final IGameInputProvider inputProvider;
+      try
+      {
+         inputProvider = new ScriptedGameInputProvider(Paths.get(pScriptFileName));
+      }
+      catch (IOException e)
+      {
+         RenderingHelper.renderLoggingLine("replay: problem reading the script. e=" + e);
+         return;
+      }
+
+      final long startNanos = System.nanoTime();
+      IGameManager gameManager = getGameToPlay(inputProvider, pStrategy, pGeometry);
+      RenderingHelper.setQuiet(pQuiet);
+      try
+      {
+         play(gameManager, inputProvider);
+      }
+      finally
       {
+         RenderingHelper.setQuiet(false);
+      }
+      RenderingHelper.renderOutputLine("Replayed '" + pScriptFileName + "' in " + ((System.nanoTime() - startNanos) / 1_000_000)
+            + " ms");
+   }
 
-         // Start a new game, with the application being the first player
-         // We'll build a new board each game; we could simply reset the existing board, if we become
-         // concerned about memory or performance in the future
-         PlayerEnum currentPlayer = PlayerEnum.APPLICATION;
-         IGameBoard gameBoard = gameManager.getNewGameBoard();
+   /**
+    * Serve games over TCP on localhost until the process is stopped
+    *
+    * @param pPort        the port to listen on
+    * @param pMaxSessions the most sessions to have open at once
+    * @param pStrategy    how the application chooses its moves
+    */
+   private static void serve(final int pPort, final int pMaxSessions, final TicTacToeStrategyEnum pStrategy)
+   {
+      try (TicTacToeServer server = new TicTacToeServer(getGameToPlay(StreamGameInputProvider.getConsole(), pStrategy),
+            pPort, pMaxSessions))
+      {
+         RenderingHelper.renderOutputLine("Serving TicTacToe on localhost port " + server.getPort());
 
+         // Sessions talk to their clients over the network; nobody is watching the console, so the metrics are
+         // only seen over JMX
+         TicTacToeMetrics.getInstance().registerMBean();
+         RenderingHelper.setQuiet(true);
+         server.serve();
+      }
+      catch (IOException e)
+      {
+         RenderingHelper.renderLoggingLine("serve: problem serving. e=" + e);
+      }
+   }
 
-         // Loop through the moves in this particular game, until the game is no longer on
-         boolean isThisGameStillOn = true;
-         while (isThisGameStillOn)
-         {
+   /**
+    * Write everything learned so far to the binary knowledge file, rendering only a summary
+    */
+   private static void convertKnowledge()
+   {
+      final long startNanos = System.nanoTime();
+      TicTacToeKnowledgeStore knowledgeStore = TicTacToeKnowledgeStore.loadFromLogFiles();
+      knowledgeStore.writeKnowledgeFile();
 
-            // 1. Get the next move
-            IGameMove gameMove = gameManager.getNextMove(currentPlayer, gameBoard);
-
-
-            // 2. Apply the move (maybe) and get the resulting status
-            GameStatusInfo gameStatusInfo;
-            if (gameMove.isChooseToStop())
-            {
-               // It could be that the human quit, or that the application has given up
-               gameStatusInfo = new GameStatusInfo(currentPlayer, GameStatusEnum.QUIT);
-            }
-            else
-            {
-               gameBoard.applyChosenMove(gameMove);
-               gameStatusInfo = gameManager.getGameStatusInfo(currentPlayer, gameBoard);
-            }
-
-
-            // 3. Figure out what to do next, and do it
-            isThisGameStillOn = !gameStatusInfo.getGameStatus().isGameOver();
-            if (isThisGameStillOn)
-            {
-               // Change to the next player, in preparation of the next time through the loop
-               currentPlayer = getNextPlayer(currentPlayer);
-            }
-            else
-            {
-               // Save the results of this game, and render the final status to the user
-               gameManager.saveResults(gameBoard, gameStatusInfo);
-               gameManager.renderFinalResults(gameStatusInfo, gameBoard);
-            }
+      RenderingHelper.renderOutputLine("Wrote " + knowledgeStore.size() + " moves to avoid to the knowledge file in "
+            + ((System.nanoTime() - startNanos) / 1_000_000) + " ms");
+   }
 
-         }
+   /**
+    * Rewrite the verbose log from everything learned so far, rendering only a summary
+    */
+   private static void exportVerboseLog()
+   {
+      final long startNanos = System.nanoTime();
+      TicTacToeKnowledgeStore knowledgeStore = TicTacToeKnowledgeStore.loadFromLogFiles();
+      knowledgeStore.exportVerboseLog();
 
+      RenderingHelper.renderOutputLine("Wrote " + knowledgeStore.size() + " moves to avoid to the verbose log in "
+            + ((System.nanoTime() - startNanos) / 1_000_000) + " ms");
+   }
 
+   /**
+    * Drop the entries that can no longer make a difference from everything learned so far, and rewrite the log files
+    * with what is left, rendering only a summary
+    */
+   private static void compactKnowledge()
+   {
+      final long startNanos = System.nanoTime();
+      TicTacToeKnowledgeStore knowledgeStore = TicTacToeKnowledgeStore.loadFromLogFiles();
+      final int sizeBefore = knowledgeStore.size();
+      knowledgeStore.compact();
 
+      RenderingHelper.renderOutputLine("Compacted the moves to avoid from " + sizeBefore + " to " + knowledgeStore.size()
+            + " in " + ((System.nanoTime() - startNanos) / 1_000_000) + " ms");
+   }
 
-         // Ask to play another game
-         isStillPlayingAdditionalGames = inviteAnotherGame();
-         if (isStillPlayingAdditionalGames)
+   /**
+    * @param pResults the results of a simulation or training run
+    */
+   private static void renderResultCounts(final SimulationResults pResults)
+   {
+      RenderingHelper.renderOutputLine("Wins: " + pResults.getWins() + ", Losses: " + pResults.getLosses()
+            + ", Ties: " + pResults.getTies() + ", Quits: " + pResults.getQuits());
+      RenderingHelper.renderOutputLine("Moves to avoid: " + pResults.getKnowledgeSize());
+   }
+
+   /**
+    * @param pArgs       the command line arguments
+    * @param pOptionName the name of an option, such as "--seed"
+    * @return the argument that follows the given option, or null if the option was not given
+    */
+   private static String getOptionValue(final String[] pArgs, final String pOptionName)
+   {
+      for (int i = 0; i < pArgs.length - 1; i++)
+      {
+         if (pOptionName.equals(pArgs[i]))
          {
-            RenderingHelper.renderOutputLine("\n");
-            RenderingHelper.renderOutputLine("OK, let's play again!  I'll start...");
+            return pArgs[i + 1];
          }
-         else
+      }
+      return null;
+   }
+
+   /**
+    * @param pArgs       the command line arguments
+    * @param pOptionName the name of an option that takes no value, such as "--convert-knowledge"
+    * @return true if the given option was given
+    */
+   private static boolean isOptionGiven(final String[] pArgs, final String pOptionName)
+   {
+      for (String arg : pArgs)
+      {
+         if (pOptionName.equals(arg))
          {
-            RenderingHelper.renderOutputLine("\n");
-            RenderingHelper.renderOutputLine("OK, so long, let's play again soon!");
-            RenderingHelper.renderOutputLine("\n");
+            return true;
          }
       }
+      return false;
    }
 
+
    /**
+    * Wrapper method for running the exercise
     *
-    * @param pCurrentPlayer
-    * @return the next player.  We could move this down to the IGameManager implementation, if different games will
-    * offer different movements of players (e.g., a player might go twice in a row in some games)
+    * @param pGameManager   the game to play; tic-tac-toe, or an m,n,k game on a larger board
+    * @param pInputProvider the source of the human's input, which must be the same one the game manager reads from
     */
-   private static PlayerEnum getNextPlayer(PlayerEnum pCurrentPlayer)
+   private static void play(final IGameManager pGameManager, final IGameInputProvider pInputProvider)
    {
-      pCurrentPlayer = pCurrentPlayer == PlayerEnum.APPLICATION ? PlayerEnum.HUMAN : PlayerEnum.APPLICATION;
-      return pCurrentPlayer;
+      pGameManager.introduceGameAndRules();
+
+      // One board is used for every game, and reset between them
+      final IGameBoard gameBoard = pGameManager.getNewGameBoard();
+
+      // The human's moves are read through the manager, which shows the board first
+      final IGameOpponent humanPlayer = (board, random) -> pGameManager.getNextMove(PlayerEnum.HUMAN, board);
+      final BiConsumer<IGameBoard, GameStatusInfo> saveAndRenderResults = (board, gameStatusInfo) -> {
+         pGameManager.saveResults(board, gameStatusInfo);
+         pGameManager.renderFinalResults(gameStatusInfo, board);
+      };
+
+      // Loop through (potentially) multiple games
+      boolean isStillPlayingAdditionalGames = true;
+      while (isStillPlayingAdditionalGames)
+      {
+
+         // Play a game, with the application being the first player; once it's over, the results are saved, and
+         // the final status is rendered to the user
+         GameLoop.playOneGame(pGameManager, gameBoard, humanPlayer, ThreadLocalRandom.current(), saveAndRenderResults);
+
+         // Ask to play another game
+         isStillPlayingAdditionalGames = inviteAnotherGame(pInputProvider);
+         final StringBuilder frame = RenderingHelper.startFrame();
+         if (isStillPlayingAdditionalGames)
+         {
+            RenderingHelper.appendOutputLine(frame, "\n");
+            RenderingHelper.appendOutputLine(frame, "OK, let's play again!  I'll start...");
+         }
+         else
+         {
+            RenderingHelper.appendOutputLine(frame, "\n");
+            RenderingHelper.appendOutputLine(frame, "OK, so long, let's play again soon!");
+            RenderingHelper.appendOutputLine(frame, "\n");
+         }
+         RenderingHelper.renderFrame(frame);
+      }
    }
 
    /**
+    * @param pInputProvider the source of the human's input
     * @return true if the user wants to play another game
     */
-   private static boolean inviteAnotherGame()
+   private static boolean inviteAnotherGame(final IGameInputProvider pInputProvider)
    {
-      RenderingHelper.renderOutputLine("");
-      RenderingHelper.renderOutputLine("");
-      RenderingHelper.renderOutputLine("");
-      RenderingHelper.renderOutputLine("*********************************************************");
-      RenderingHelper.renderOutputLine("Would you like to play another game?  Enter 'y' for Yes: ");
-      final Scanner scanner = new Scanner(System.in);
-      final String nextWord = scanner.next();
-      return "y".equalsIgnoreCase(nextWord.trim()) || "yes".equalsIgnoreCase(nextWord.trim());
+      final StringBuilder frame = RenderingHelper.startFrame();
+      RenderingHelper.appendOutputLine(frame, "");
+      RenderingHelper.appendOutputLine(frame, "");
+      RenderingHelper.appendOutputLine(frame, "");
+      RenderingHelper.appendOutputLine(frame, "*********************************************************");
+      RenderingHelper.appendOutputLine(frame, "Would you like to play another game?  Enter 'y' for Yes: ");
+      RenderingHelper.renderFrame(frame);
+      // Skip blank lines; if the input runs out, there's nobody left to play
+      String nextWord = "";
+      while (nextWord.isEmpty())
+      {
+         final String inputLine = pInputProvider.readLine();
+         if (inputLine == null)
+         {
+            return false;
+         }
+         nextWord = inputLine.trim();
+      }
+      return "y".equalsIgnoreCase(nextWord) || "yes".equalsIgnoreCase(nextWord);
    }
 
 
@@ -153,11 +478,55 @@ public class PlayTheGame
     * At present, this method will hard-code a return value of the TicTacToeManager, but
     * it could be later enhanced to return another game that satisfies the GameManager contract
     *
+    * @param pInputProvider the source of the human's input
+    * @param pStrategy      how the application chooses its moves
     * @return a particular game to play.
     */
-   private static IGameManager getGameToPlay()
+   private static TicTacToeManager getGameToPlay(final IGameInputProvider pInputProvider,
+                                                 final TicTacToeStrategyEnum pStrategy)
+   {
+      // The knowledge is loaded in the background, so the game can start straight away
+      return new TicTacToeManager(pInputProvider, pStrategy);
+   }
+
+   /**
+    * @param pInputProvider the source of the human's input
+    * @param pStrategy      how the application chooses its moves, in TicTacToe
+    * @param pGeometry      the shape of the board to play on
+    * @return TicTacToe, with its own engine, for a 3,3,3 board, and otherwise an m,n,k game on the general engine
+    */
+   private static IGameManager getGameToPlay(final IGameInputProvider pInputProvider,
+                                             final TicTacToeStrategyEnum pStrategy, final MnkGeometry pGeometry)
+   {
+      if (isTicTacToe(pGeometry))
+      {
+         return getGameToPlay(pInputProvider, pStrategy);
+      }
+      return new MnkManager(pGeometry, pInputProvider);
+   }
+
+   /**
+    * @param pBoardValue the value of the --board option, such as "4,4,3"
+    * @return the shape of board that the value describes
+    */
+   private static MnkGeometry getBoardGeometry(final String pBoardValue)
+   {
+      final int[] numbers = new int[3];
+      if (InputParsingHelper.parseNumbers(pBoardValue, 0, numbers) != numbers.length)
+      {
+         throw new IllegalArgumentException(OPTION_BOARD + " must be given as rows,columns,winLength, such as 4,4,3. board="
+               + pBoardValue);
+      }
+      return new MnkGeometry(numbers[0], numbers[1], numbers[2]);
+   }
+
+   /**
+    * @param pGeometry the shape of a board
+    * @return true if it's the 3,3,3 board of TicTacToe
+    */
+   private static boolean isTicTacToe(final MnkGeometry pGeometry)
    {
-      return new TicTacToeManager();
+      return pGeometry.getRows() == 3 && pGeometry.getColumns() == 3 && pGeometry.getWinLength() == 3;
    }
 
 
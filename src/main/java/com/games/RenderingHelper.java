@@ -7,11 +7,25 @@ package com.games;
  *
  * For now, will simply render to System.out
  *
+ * Anything longer than a line or two, such as a board, should be built up as a frame - see startFrame() - and
+ * rendered with a single write, rather than with a call per line or fragment.  Each call to System.out takes its lock,
+ * and may flush it.
+ *
+ * In quiet mode, used for batch and server runs, nothing is rendered to the user; logging is unaffected.
  */
 public class RenderingHelper
 {
 
 
+    private static final String OUTPUT_INDENT = "    ";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    // Each thread builds its frames in its own buffer, which is reused from frame to frame
+    private static final ThreadLocal<StringBuilder> FRAME_BUFFER = ThreadLocal.withInitial(StringBuilder::new);
+
+    private static volatile boolean fQuiet;
+
+
     /**
      * Render the line to the user.  At present, simply renders the text to System.out.
      *
@@ -19,7 +33,9 @@ public class RenderingHelper
      */
     public static void renderOutputLine(final String pString) {
         // Refactor this, depending on how we wish to render the data to the user
-        System.out.println("    " + pString);
+        if (!fQuiet) {
+            System.out.println(OUTPUT_INDENT + pString);
+        }
     }
 
     /**
@@ -28,7 +44,42 @@ public class RenderingHelper
      */
     public static void renderOutputFragment(final String pString) {
         // Refactor this, depending on how we wish to render the data to the user
-        System.out.print(pString);
+        if (!fQuiet) {
+            System.out.print(pString);
+        }
+    }
+
+    /**
+     * Start building a frame of output, to be rendered all at once with renderFrame()
+     *
+     * @return this thread's frame buffer, emptied.  It's reused by the next call on the same thread, so it must be
+     * rendered before another frame is started
+     */
+    public static StringBuilder startFrame() {
+        final StringBuilder frame = FRAME_BUFFER.get();
+        frame.setLength(0);
+        return frame;
+    }
+
+    /**
+     * Add a line to a frame, formatted just as renderOutputLine() would render it
+     *
+     * @param pFrame  the frame being built
+     * @param pString a String to render to the user
+     */
+    public static void appendOutputLine(final StringBuilder pFrame, final String pString) {
+        pFrame.append(OUTPUT_INDENT).append(pString).append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Render a whole frame to the user, with a single write
+     *
+     * @param pFrame the frame to render
+     */
+    public static void renderFrame(final StringBuilder pFrame) {
+        if (!fQuiet) {
+            System.out.print(pFrame);
+        }
     }
 
     /**
@@ -41,6 +92,19 @@ public class RenderingHelper
         System.out.println("LOGGING: " + pLoggingString);
     }
 
+    /**
+     * @param pQuiet true to stop rendering anything to the user, or false to start again
+     */
+    public static void setQuiet(final boolean pQuiet) {
+        fQuiet = pQuiet;
+    }
+
+    /**
+     * @return true if nothing is being rendered to the user, so that callers may skip building output altogether
+     */
+    public static boolean isQuiet() {
+        return fQuiet;
+    }
 
 
 }
@@ -0,0 +1,59 @@
+package com.games;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Replays the human player's input from a script, such as input recorded from earlier games.
+ * <p>
+ * The whole script is read in a single pass when the provider is built, and each line is then cut from it as it's
+ * needed, so that replaying never waits on the disk.  The script holds exactly what a human would type, one entry per
+ * line.
+ * <p>
+ * This class is not thread-safe; each replay should have its own provider.
+ */
+public class ScriptedGameInputProvider
+      implements IGameInputProvider
+{
+
+
+   private final String fScript;
+   private int fNextLineStart;
+
+   /**
+    * @param pScriptFile the file of recorded input to replay
+    * @throws IOException if the file could not be read
+    */
+   public ScriptedGameInputProvider(final Path pScriptFile) throws IOException
+   {
+      Objects.requireNonNull(pScriptFile, "script file may not be null");
+      fScript = new String(Files.readAllBytes(pScriptFile), StandardCharsets.UTF_8);
+   }
+
+   @Override
+   public String readLine()
+   {
+      if (fNextLineStart >= fScript.length())
+      {
+         return null;
+      }
+      int lineEnd = fScript.indexOf('\n', fNextLineStart);
+      if (lineEnd < 0)
+      {
+         lineEnd = fScript.length();
+      }
+      final int nextLineStart = lineEnd + 1;
+
+      // Accept files with Windows line endings too
+      if (lineEnd > fNextLineStart && fScript.charAt(lineEnd - 1) == '\r')
+      {
+         lineEnd--;
+      }
+      final String returnVal = fScript.substring(fNextLineStart, lineEnd);
+      fNextLineStart = nextLineStart;
+      return returnVal;
+   }
+}
@@ -0,0 +1,93 @@
+package com.games;
+
+/**
+ * A simple summary of a headless simulation run.  Wins, losses and quits are counted from the point of view
+ * of the application.
+ */
+public class SimulationResults
+{
+
+
+   private final int fGamesPlayed;
+   private final int fWins;
+   private final int fLosses;
+   private final int fTies;
+   private final int fQuits;
+   private final long fElapsedNanos;
+   private final int fKnowledgeSize;
+
+   public SimulationResults(final int pGamesPlayed, final int pWins, final int pLosses, final int pTies, final int pQuits,
+                            final long pElapsedNanos, final int pKnowledgeSize)
+   {
+      fGamesPlayed = pGamesPlayed;
+      fWins = pWins;
+      fLosses = pLosses;
+      fTies = pTies;
+      fQuits = pQuits;
+      fElapsedNanos = pElapsedNanos;
+      fKnowledgeSize = pKnowledgeSize;
+   }
+
+   public int getGamesPlayed()
+   {
+      return fGamesPlayed;
+   }
+
+   public int getWins()
+   {
+      return fWins;
+   }
+
+   public int getLosses()
+   {
+      return fLosses;
+   }
+
+   public int getTies()
+   {
+      return fTies;
+   }
+
+   /**
+    * @return the number of games that ended with either player choosing to stop
+    */
+   public int getQuits()
+   {
+      return fQuits;
+   }
+
+   public long getElapsedNanos()
+   {
+      return fElapsedNanos;
+   }
+
+   /**
+    * @return the size of the learned knowledge (e.g., moves to avoid) at the end of the run
+    */
+   public int getKnowledgeSize()
+   {
+      return fKnowledgeSize;
+   }
+
+   /**
+    * @return the number of games played per second of elapsed time
+    */
+   public double getGamesPerSecond()
+   {
+      return fElapsedNanos == 0 ? 0 : fGamesPlayed / (fElapsedNanos / 1_000_000_000.0);
+   }
+
+   @Override
+   public String toString()
+   {
+      return "SimulationResults{" +
+            "fGamesPlayed=" + fGamesPlayed +
+            ", fWins=" + fWins +
+            ", fLosses=" + fLosses +
+            ", fTies=" + fTies +
+            ", fQuits=" + fQuits +
+            ", fElapsedNanos=" + fElapsedNanos +
+            ", fKnowledgeSize=" + fKnowledgeSize +
+            '}';
+   }
+}
@@ -0,0 +1,61 @@
+package com.games;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.Objects;
+
+/**
+ * Reads the human player's input from a stream, such as the console, one line at a time as it's needed.
+ * <p>
+ * The stream is wrapped in a single buffered reader for as long as the provider is used.  Everything that reads the
+ * same stream must share the same provider, since each reader would otherwise buffer input that the others never see.
+ */
+public class StreamGameInputProvider
+      implements IGameInputProvider
+{
+
+
+   private final BufferedReader fReader;
+
+   /**
+    * @param pInputStream the stream to read from
+    */
+   public StreamGameInputProvider(final InputStream pInputStream)
+   {
+      Objects.requireNonNull(pInputStream, "input stream may not be null");
+      fReader = new BufferedReader(new InputStreamReader(pInputStream, Charset.defaultCharset()));
+   }
+
+   /**
+    * @return the provider that reads from System.in, shared by everything that reads the console
+    */
+   public static StreamGameInputProvider getConsole()
+   {
+      return ConsoleHolder.CONSOLE;
+   }
+
+   @Override
+   public synchronized String readLine()
+   {
+      try
+      {
+         return fReader.readLine();
+      }
+      catch (IOException e)
+      {
+         RenderingHelper.renderLoggingLine("readLine: problem reading. e=" + e);
+         return null;
+      }
+   }
+
+   /**
+    * Holds the console provider, so that it's only built the first time it's needed
+    */
+   private static final class ConsoleHolder
+   {
+      private static final StreamGameInputProvider CONSOLE = new StreamGameInputProvider(System.in);
+   }
+}
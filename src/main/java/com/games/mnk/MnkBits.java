@@ -0,0 +1,96 @@
+package com.games.mnk;
+
+import java.util.Arrays;
+
+/**
+ * Operations on the bitsets that hold sets of cells on an m,n,k board.  A bitset is a long[] of
+ * MnkGeometry.getWordCount() words, with the cell at 0-based index i held in bit (i % 64) of word (i / 64).
+ */
+final class MnkBits
+{
+
+
+   private static final int WORD_SHIFT = 6;
+   private static final int WORD_BITS = 1 << WORD_SHIFT;
+
+   private MnkBits()
+   {
+      // static methods only
+   }
+
+   /**
+    * @param pBitCount the number of bits to hold
+    * @return the number of words needed to hold them
+    */
+   static int getWordCount(final int pBitCount)
+   {
+      return (pBitCount + WORD_BITS - 1) >>> WORD_SHIFT;
+   }
+
+   /**
+    * @param pBits      a bitset
+    * @param pCellIndex the 0-based index of a cell
+    * @return true if the given cell is in the set
+    */
+   static boolean isSet(final long[] pBits, final int pCellIndex)
+   {
+      return (pBits[pCellIndex >>> WORD_SHIFT] & (1L << pCellIndex)) != 0;
+   }
+
+   /**
+    * @param pBits      a bitset, to add the cell to
+    * @param pCellIndex the 0-based index of a cell
+    */
+   static void set(final long[] pBits, final int pCellIndex)
+   {
+      pBits[pCellIndex >>> WORD_SHIFT] |= 1L << pCellIndex;
+   }
+
+   /**
+    * @param pBits      a bitset, to remove the cell from
+    * @param pCellIndex the 0-based index of a cell
+    */
+   static void clear(final long[] pBits, final int pCellIndex)
+   {
+      pBits[pCellIndex >>> WORD_SHIFT] &= ~(1L << pCellIndex);
+   }
+
+   /**
+    * @param pBits      a bitset, to hold exactly the first pBitCount cells
+    * @param pBitCount the number of cells to hold, from 0 to the number of bits in the bitset
+    */
+   static void setFirst(final long[] pBits, final int pBitCount)
+   {
+      final int fullWordCount = pBitCount >>> WORD_SHIFT;
+      Arrays.fill(pBits, 0, fullWordCount, -1L);
+      Arrays.fill(pBits, fullWordCount, pBits.length, 0L);
+      if ((pBitCount & (WORD_BITS - 1)) != 0)
+      {
+         pBits[fullWordCount] = (1L << pBitCount) - 1;
+      }
+   }
+
+   /**
+    * @param pBits      a bitset
+    * @param pFromIndex the 0-based index to start looking from
+    * @return the index of the first cell in the set at or after pFromIndex, or -1 if there is none
+    */
+   static int nextSetBit(final long[] pBits, final int pFromIndex)
+   {
+      int wordIndex = pFromIndex >>> WORD_SHIFT;
+      if (wordIndex >= pBits.length)
+      {
+         return -1;
+      }
+      long word = pBits[wordIndex] & (-1L << pFromIndex);
+      while (word == 0)
+      {
+         if (++wordIndex == pBits.length)
+         {
+            return -1;
+         }
+         word = pBits[wordIndex];
+      }
+      return (wordIndex << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+   }
+}
@@ -0,0 +1,376 @@
+package com.games.mnk;
+
+import com.games.GameStatusEnum;
+import com.games.IGameBoard;
+import com.games.IGameMove;
+import com.games.RenderingHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A board for an m,n,k game of any size that MnkGeometry allows.
+ * <p>
+ * Just as with TicTacToeBoard, the board is held as one set of cells selected by X and another selected by O, but here
+ * each set is a bitset of as many longs as the board needs (see MnkBits), rather than a single int.
+ * <p>
+ * The board also keeps, for each player, how many cells of each winning line they hold, updated as moves are made
+ * and taken back.  A move can only complete one of the lines through its own cell, so making a move costs one step
+ * per line through that cell, and whether the game is won is known without looking at the board at all, however
+ * large it is.  A TicTacToeBoard doesn't need this, as it looks up the status of its whole position in one step.
+ * <p>
+ * The empty cells are kept as a third bitset in the same way, so they can be visited without scanning the board or
+ * allocating:
+ * <pre>
+ *    for (int cellNumber = board.getNextEmptyCell(1); cellNumber &gt; 0; cellNumber = board.getNextEmptyCell(cellNumber + 1))
+ * </pre>
+ * <p>
+ * This class is not thread-safe; each game should have its own board.
+ */
+public class MnkBoard
+      implements IGameBoard
+{
+
+
+   private final MnkGeometry fGeometry;
+   private final long[] fXBits;
+   private final long[] fOBits;
+   private final long[] fEmptyBits;
+   private int fOccupiedCount;
+
+   // Indexed by line; the number of that line's cells each player holds
+   private final int[] fXLineCounts;
+   private final int[] fOLineCounts;
+
+   // The number of lines each player holds every cell of
+   private int fXCompletedLineCount;
+   private int fOCompletedLineCount;
+
+   private final List<MnkMove> fMoveHistory;
+
+   // Scratch bitsets for getCanonicalSymmetry(), so that it doesn't allocate
+   private final long[] fPermutedXBits;
+   private final long[] fPermutedOBits;
+   private final long[] fSmallestXBits;
+   private final long[] fSmallestOBits;
+
+   /**
+    * @param pGeometry the shape of the board
+    */
+   public MnkBoard(final MnkGeometry pGeometry)
+   {
+      fGeometry = Objects.requireNonNull(pGeometry, "geometry may not be null");
+      fXBits = new long[pGeometry.getWordCount()];
+      fOBits = new long[pGeometry.getWordCount()];
+      fEmptyBits = new long[pGeometry.getWordCount()];
+      MnkBits.setFirst(fEmptyBits, pGeometry.getCellCount());
+      fXLineCounts = new int[pGeometry.getLineCount()];
+      fOLineCounts = new int[pGeometry.getLineCount()];
+      fMoveHistory = new ArrayList<>();
+      fPermutedXBits = new long[pGeometry.getWordCount()];
+      fPermutedOBits = new long[pGeometry.getWordCount()];
+      fSmallestXBits = new long[pGeometry.getWordCount()];
+      fSmallestOBits = new long[pGeometry.getWordCount()];
+   }
+
+   /**
+    * @param pMove the move to make; must select an empty cell on this board
+    */
+   @Override
+   public void applyChosenMove(final IGameMove pMove)
+   {
+      Objects.requireNonNull(pMove, "move may not be null");
+      if (pMove instanceof MnkMove)
+      {
+         final MnkMove mnkMove = (MnkMove) pMove;
+         final int cellIndex = fGeometry.checkCellNumber(mnkMove.getCellNumber()) - 1;
+         if (MnkBits.isSet(fXBits, cellIndex) || MnkBits.isSet(fOBits, cellIndex))
+         {
+            throw new IllegalArgumentException("cell is already selected. cellNumber=" + mnkMove.getCellNumber());
+         }
+
+         MnkBits.set(getBitsForStatus(mnkMove.getCellStatus()), cellIndex);
+         MnkBits.clear(fEmptyBits, cellIndex);
+         fOccupiedCount++;
+         updateLineCounts(mnkMove.getCellStatus(), cellIndex, 1);
+         fMoveHistory.add(mnkMove);
+      }
+      else
+      {
+         RenderingHelper.renderLoggingLine("applyChosenMove: given move is not an MnkMove object. class=" + pMove.getClass().getName());
+      }
+   }
+
+   /**
+    * Clear every cell and the move history, ready for a new game
+    */
+   @Override
+   public void reset()
+   {
+      Arrays.fill(fXBits, 0L);
+      Arrays.fill(fOBits, 0L);
+      MnkBits.setFirst(fEmptyBits, fGeometry.getCellCount());
+      fOccupiedCount = 0;
+      Arrays.fill(fXLineCounts, 0);
+      Arrays.fill(fOLineCounts, 0);
+      fXCompletedLineCount = 0;
+      fOCompletedLineCount = 0;
+      fMoveHistory.clear();
+   }
+
+   /**
+    * Take back the last move made, clearing its cell
+    *
+    * @throws IllegalStateException if no moves have been made
+    */
+   public void undoMove()
+   {
+      if (fMoveHistory.isEmpty())
+      {
+         throw new IllegalStateException("there is no move to undo");
+      }
+      final MnkMove lastMove = fMoveHistory.remove(fMoveHistory.size() - 1);
+      MnkBits.clear(getBitsForStatus(lastMove.getCellStatus()), lastMove.getCellNumber() - 1);
+      MnkBits.set(fEmptyBits, lastMove.getCellNumber() - 1);
+      fOccupiedCount--;
+      updateLineCounts(lastMove.getCellStatus(), lastMove.getCellNumber() - 1, -1);
+   }
+
+   /**
+    * @param pCellStatus the player who has taken or given up the cell; X_SELECTED or O_SELECTED
+    * @param pCellIndex  the 0-based index of the cell
+    * @param pChange     1 if the cell has been taken, or -1 if it has been given up
+    */
+   private void updateLineCounts(final MnkCellStatusEnum pCellStatus, final int pCellIndex, final int pChange)
+   {
+      final boolean isX = pCellStatus == MnkCellStatusEnum.X_SELECTED;
+      final int[] lineCounts = isX ? fXLineCounts : fOLineCounts;
+      final int winLength = fGeometry.getWinLength();
+      int completedLineChange = 0;
+      for (int line : fGeometry.getLinesThroughCell(pCellIndex))
+      {
+         // A line is completed by the move that takes its last cell, and undone by taking back any of them
+         final boolean isCompletedBefore = lineCounts[line] == winLength;
+         lineCounts[line] += pChange;
+         if (isCompletedBefore != (lineCounts[line] == winLength))
+         {
+            completedLineChange += pChange;
+         }
+      }
+      if (isX)
+      {
+         fXCompletedLineCount += completedLineChange;
+      }
+      else
+      {
+         fOCompletedLineCount += completedLineChange;
+      }
+   }
+
+   /**
+    * @param pCellStatus the status to check for; X_SELECTED or O_SELECTED
+    * @return true if the cells with the given status hold a whole winning line
+    */
+   public boolean isGameWon(final MnkCellStatusEnum pCellStatus)
+   {
+      Objects.requireNonNull(pCellStatus, "cell status may not be null");
+      switch (pCellStatus)
+      {
+         case X_SELECTED:
+            return fXCompletedLineCount > 0;
+         case O_SELECTED:
+            return fOCompletedLineCount > 0;
+         default:
+            return false;
+      }
+   }
+
+   /**
+    * @return the status of the game on this board: WON if either player has a winning line, TIE if the board is
+    * full, and ONGOING otherwise.  Will not return null
+    */
+   public GameStatusEnum getGameStatus()
+   {
+      if (fXCompletedLineCount > 0 || fOCompletedLineCount > 0)
+      {
+         return GameStatusEnum.WON;
+      }
+      return fOccupiedCount == fGeometry.getCellCount() ? GameStatusEnum.TIE : GameStatusEnum.ONGOING;
+   }
+
+   /**
+    * @param pCellNumber a 1-based cell number
+    * @return the status of the given cell.  Will not return null
+    */
+   public MnkCellStatusEnum getCellStatus(final int pCellNumber)
+   {
+      final int cellIndex = fGeometry.checkCellNumber(pCellNumber) - 1;
+      if (MnkBits.isSet(fXBits, cellIndex))
+      {
+         return MnkCellStatusEnum.X_SELECTED;
+      }
+      if (MnkBits.isSet(fOBits, cellIndex))
+      {
+         return MnkCellStatusEnum.O_SELECTED;
+      }
+      return MnkCellStatusEnum.UNSELECTED;
+   }
+
+   /**
+    * Builds a new list on every call; to visit the empty cells without allocating, use getNextEmptyCell() instead
+    *
+    * @param pCellStatus the status to check for
+    * @return the numbers of the cells that have the given status, in ascending order.  Will not return null
+    */
+   public List<Integer> getCellsOfGivenStatus(final MnkCellStatusEnum pCellStatus)
+   {
+      Objects.requireNonNull(pCellStatus, "cell status may not be null");
+      final long[] bits = getBitsForStatus(pCellStatus);
+      final List<Integer> returnValue = new ArrayList<>();
+      for (int cellIndex = MnkBits.nextSetBit(bits, 0); cellIndex >= 0; cellIndex = MnkBits.nextSetBit(bits, cellIndex + 1))
+      {
+         returnValue.add(cellIndex + 1);
+      }
+      return returnValue;
+   }
+
+   /**
+    * @param pCellNumber the 1-based cell number to start looking from; may be one past the last cell
+    * @return the number of the first empty cell at or after the given one, or -1 if there is none
+    */
+   public int getNextEmptyCell(final int pCellNumber)
+   {
+      if (pCellNumber < 1 || pCellNumber > fGeometry.getCellCount() + 1)
+      {
+         throw new IllegalArgumentException("cell number must be from 1 to " + (fGeometry.getCellCount() + 1)
+               + ". cellNumber=" + pCellNumber);
+      }
+      final int cellIndex = MnkBits.nextSetBit(fEmptyBits, pCellNumber - 1);
+      return cellIndex < 0 ? -1 : cellIndex + 1;
+   }
+
+   /**
+    * @return the number of cells that have not been selected
+    */
+   public int getEmptyCellCount()
+   {
+      return fGeometry.getCellCount() - fOccupiedCount;
+   }
+
+   /**
+    * Boards that are rotations or flips of each other all give the same board once their canonical symmetry is
+    * applied, so this can be used to fold equivalent positions together, for example in a cache.
+    *
+    * The variants are built in bitsets kept on the board, so this doesn't allocate.
+    *
+    * @return the symmetry (see MnkGeometry) that moves this board to its canonical form: the variant whose X cells,
+    * then O cells, come first when their bitsets are compared word by word
+    */
+   public int getCanonicalSymmetry()
+   {
+      System.arraycopy(fXBits, 0, fSmallestXBits, 0, fXBits.length);
+      System.arraycopy(fOBits, 0, fSmallestOBits, 0, fOBits.length);
+      int returnVal = 0;
+      for (int symmetry = 1; symmetry < fGeometry.getSymmetryCount(); symmetry++)
+      {
+         fGeometry.permute(symmetry, fXBits, fPermutedXBits);
+         fGeometry.permute(symmetry, fOBits, fPermutedOBits);
+         int comparison = compareBits(fPermutedXBits, fSmallestXBits);
+         if (comparison == 0)
+         {
+            comparison = compareBits(fPermutedOBits, fSmallestOBits);
+         }
+         if (comparison < 0)
+         {
+            System.arraycopy(fPermutedXBits, 0, fSmallestXBits, 0, fPermutedXBits.length);
+            System.arraycopy(fPermutedOBits, 0, fSmallestOBits, 0, fPermutedOBits.length);
+            returnVal = symmetry;
+         }
+      }
+      return returnVal;
+   }
+
+   /**
+    * Looks only at the line counts, so this costs one step per line on the board, however many cells are taken.
+    *
+    * @param pCellStatus the player to look for; X_SELECTED or O_SELECTED
+    * @return the number of an empty cell that would complete a winning line for the given player, or -1 if there is
+    * none
+    */
+   public int getCompletingCell(final MnkCellStatusEnum pCellStatus)
+   {
+      if (pCellStatus == null || pCellStatus == MnkCellStatusEnum.UNSELECTED)
+      {
+         throw new IllegalArgumentException("cell status must be X_SELECTED or O_SELECTED. cellStatus=" + pCellStatus);
+      }
+      final boolean isX = pCellStatus == MnkCellStatusEnum.X_SELECTED;
+      final int[] lineCounts = isX ? fXLineCounts : fOLineCounts;
+      final int[] otherLineCounts = isX ? fOLineCounts : fXLineCounts;
+      final int winLength = fGeometry.getWinLength();
+      for (int line = 0; line < lineCounts.length; line++)
+      {
+         // The one cell of the line that the player doesn't hold is empty if the other player holds none of it
+         if (lineCounts[line] == winLength - 1 && otherLineCounts[line] == 0)
+         {
+            for (int cellIndex : fGeometry.getLineCells(line))
+            {
+               if (MnkBits.isSet(fEmptyBits, cellIndex))
+               {
+                  return cellIndex + 1;
+               }
+            }
+         }
+      }
+      return -1;
+   }
+
+   /**
+    * @return the shape of this board
+    */
+   public MnkGeometry getGeometry()
+   {
+      return fGeometry;
+   }
+
+   @Override
+   public List<? extends IGameMove> getMoveHistory()
+   {
+      return fMoveHistory;
+   }
+
+   /**
+    * @param pCellStatus the status to get the bitset for
+    * @return the bitset of the cells that have the given status
+    */
+   private long[] getBitsForStatus(final MnkCellStatusEnum pCellStatus)
+   {
+      switch (pCellStatus)
+      {
+         case X_SELECTED:
+            return fXBits;
+         case O_SELECTED:
+            return fOBits;
+         default:
+            return fEmptyBits;
+      }
+   }
+
+   /**
+    * @param pBits  a bitset
+    * @param pOther another bitset of the same size
+    * @return a negative number, zero, or a positive number, as pBits comes before, is the same as, or comes after pOther
+    */
+   private static int compareBits(final long[] pBits, final long[] pOther)
+   {
+      for (int i = 0; i < pBits.length; i++)
+      {
+         if (pBits[i] != pOther[i])
+         {
+            return Long.compareUnsigned(pBits[i], pOther[i]);
+         }
+      }
+      return 0;
+   }
+}
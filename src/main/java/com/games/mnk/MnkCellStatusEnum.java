@@ -0,0 +1,32 @@
+package com.games.mnk;
+
+/**
+ * Enum that gives the options for the status of a cell on an m,n,k board
+ */
+public enum MnkCellStatusEnum
+{
+
+
+   // X always moves first
+   X_SELECTED("X"),
+   O_SELECTED("O"),
+   UNSELECTED(" ");
+
+   private final String fRenderingValue;
+
+   /**
+    * @param pRenderingValue the value to display for a particular state
+    */
+   MnkCellStatusEnum(final String pRenderingValue)
+   {
+      fRenderingValue = pRenderingValue;
+   }
+
+   /**
+    * @return the value to render for a particular state of the cell
+    */
+   public String getRenderingValue()
+   {
+      return fRenderingValue;
+   }
+}
@@ -0,0 +1,318 @@
+package com.games.mnk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The shape of an m,n,k game: a board of m rows and n columns, won by the first player to hold k cells in a row,
+ * across, down or diagonally.  TicTacToe is the 3,3,3 game; Gomoku is played on larger boards with k = 5.
+ * <p>
+ * Everything that depends only on the shape is worked out once, when the geometry is built, and shared by every board
+ * of that shape:
+ * <p>
+ * - The winning lines, each as the k cells it's made of, along with the lines that pass through each cell
+ * - The symmetries of the board: 8 for a square board (4 rotations, and flips on 4 axes), or 4 for any other
+ * (the identity, a half turn, and flips top-to-bottom and side-to-side), each as a permutation of the cells
+ * <p>
+ * Cells are numbered from 1, row by row, starting with the top-left cell, just as they are in TicTacToe:
+ * <pre>
+ *    1 2 3 4
+ *    5 6 7 8
+ *    ...
+ * </pre>
+ * Instances are immutable, and are safe to share between threads.
+ */
+public final class MnkGeometry
+{
+
+
+   // Keeps the tables for the largest boards to a few megabytes
+   public static final int MAX_DIMENSION = 32;
+
+   // The step from one cell of a line to the next: across, down, down-right and down-left
+   private static final int[][] LINE_DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+   public static final MnkGeometry TIC_TAC_TOE = new MnkGeometry(3, 3, 3);
+
+   private final int fRows;
+   private final int fColumns;
+   private final int fWinLength;
+   private final int fCellCount;
+   private final int fWordCount;
+
+   // Indexed by line; the 0-based indexes of the cells in that line
+   private final int[][] fLineCells;
+
+   // Indexed by 0-based cell index; the lines that pass through that cell
+   private final int[][] fLinesThroughCell;
+
+   // Indexed by symmetry, then by 0-based cell index; the index of the cell that the symmetry moves it to
+   private final int[][] fSymmetries;
+
+   /**
+    * @param pRows      the number of rows, from 1 to MAX_DIMENSION
+    * @param pColumns   the number of columns, from 1 to MAX_DIMENSION
+    * @param pWinLength the number of cells in a row needed to win; from 1 to the larger of pRows and pColumns
+    */
+   public MnkGeometry(final int pRows, final int pColumns, final int pWinLength)
+   {
+      if (pRows < 1 || pRows > MAX_DIMENSION || pColumns < 1 || pColumns > MAX_DIMENSION)
+      {
+         throw new IllegalArgumentException("rows and columns must be from 1 to " + MAX_DIMENSION + ". rows=" + pRows
+               + ", columns=" + pColumns);
+      }
+      if (pWinLength < 1 || pWinLength > Math.max(pRows, pColumns))
+      {
+         throw new IllegalArgumentException("win length must be from 1 to the longer side of the board. winLength="
+               + pWinLength + ", rows=" + pRows + ", columns=" + pColumns);
+      }
+      fRows = pRows;
+      fColumns = pColumns;
+      fWinLength = pWinLength;
+      fCellCount = pRows * pColumns;
+      fWordCount = MnkBits.getWordCount(fCellCount);
+
+      fLineCells = buildLineCells();
+      final int[] lineCountThroughCell = new int[fCellCount];
+      for (int[] lineCells : fLineCells)
+      {
+         for (int cellIndex : lineCells)
+         {
+            lineCountThroughCell[cellIndex]++;
+         }
+      }
+      fLinesThroughCell = new int[fCellCount][];
+      for (int cellIndex = 0; cellIndex < fCellCount; cellIndex++)
+      {
+         fLinesThroughCell[cellIndex] = new int[lineCountThroughCell[cellIndex]];
+         lineCountThroughCell[cellIndex] = 0;
+      }
+      for (int line = 0; line < fLineCells.length; line++)
+      {
+         for (int cellIndex : fLineCells[line])
+         {
+            fLinesThroughCell[cellIndex][lineCountThroughCell[cellIndex]++] = line;
+         }
+      }
+
+      fSymmetries = buildSymmetries();
+   }
+
+   /**
+    * @return every run of fWinLength cells in a straight line, each as the 0-based indexes of its cells
+    */
+   private int[][] buildLineCells()
+   {
+      final List<int[]> lines = new ArrayList<>();
+      for (int[] direction : LINE_DIRECTIONS)
+      {
+         // A single cell is a line in every direction; only count it once
+         if (fWinLength == 1 && direction != LINE_DIRECTIONS[0])
+         {
+            break;
+         }
+         for (int startRow = 0; startRow < fRows; startRow++)
+         {
+            for (int startColumn = 0; startColumn < fColumns; startColumn++)
+            {
+               final int endRow = startRow + direction[0] * (fWinLength - 1);
+               final int endColumn = startColumn + direction[1] * (fWinLength - 1);
+               if (endRow < 0 || endRow >= fRows || endColumn < 0 || endColumn >= fColumns)
+               {
+                  continue;
+               }
+               final int[] line = new int[fWinLength];
+               for (int i = 0; i < fWinLength; i++)
+               {
+                  line[i] = (startRow + direction[0] * i) * fColumns + startColumn + direction[1] * i;
+               }
+               lines.add(line);
+            }
+         }
+      }
+      return lines.toArray(new int[lines.size()][]);
+   }
+
+   /**
+    * @return the symmetries of the board, the identity first, each as a permutation of 0-based cell indexes
+    */
+   private int[][] buildSymmetries()
+   {
+      final int lastRow = fRows - 1;
+      final int lastColumn = fColumns - 1;
+      final int symmetryCount = fRows == fColumns ? 8 : 4;
+      final int[][] returnVal = new int[symmetryCount][fCellCount];
+      for (int row = 0; row < fRows; row++)
+      {
+         for (int column = 0; column < fColumns; column++)
+         {
+            final int cellIndex = row * fColumns + column;
+
+            // identity, half turn, flip top-to-bottom, and flip side-to-side
+            returnVal[0][cellIndex] = cellIndex;
+            returnVal[1][cellIndex] = (lastRow - row) * fColumns + (lastColumn - column);
+            returnVal[2][cellIndex] = (lastRow - row) * fColumns + column;
+            returnVal[3][cellIndex] = row * fColumns + (lastColumn - column);
+            if (symmetryCount == 8)
+            {
+               // quarter turns, and flips on the two diagonals
+               returnVal[4][cellIndex] = column * fColumns + (lastRow - row);
+               returnVal[5][cellIndex] = (lastColumn - column) * fColumns + row;
+               returnVal[6][cellIndex] = column * fColumns + row;
+               returnVal[7][cellIndex] = (lastColumn - column) * fColumns + (lastRow - row);
+            }
+         }
+      }
+      return returnVal;
+   }
+
+   public int getRows()
+   {
+      return fRows;
+   }
+
+   public int getColumns()
+   {
+      return fColumns;
+   }
+
+   /**
+    * @return the number of cells in a row needed to win
+    */
+   public int getWinLength()
+   {
+      return fWinLength;
+   }
+
+   public int getCellCount()
+   {
+      return fCellCount;
+   }
+
+   /**
+    * @return the number of longs in a bitset of cells on this board
+    */
+   public int getWordCount()
+   {
+      return fWordCount;
+   }
+
+   /**
+    * @return the number of distinct winning lines on this board
+    */
+   public int getLineCount()
+   {
+      return fLineCells.length;
+   }
+
+   /**
+    * @return the number of symmetries of this board: 8 if it's square, or 4 if it isn't
+    */
+   public int getSymmetryCount()
+   {
+      return fSymmetries.length;
+   }
+
+   /**
+    * @param pRow    a 1-based row
+    * @param pColumn a 1-based column
+    * @return the 1-based number of the cell at the given row and column
+    */
+   public int getCellNumber(final int pRow, final int pColumn)
+   {
+      if (pRow < 1 || pRow > fRows || pColumn < 1 || pColumn > fColumns)
+      {
+         throw new IllegalArgumentException("row or column is off the board. row=" + pRow + ", column=" + pColumn);
+      }
+      return (pRow - 1) * fColumns + pColumn;
+   }
+
+   /**
+    * @param pCellNumber a 1-based cell number
+    * @return the 1-based row of the given cell
+    */
+   public int getRow(final int pCellNumber)
+   {
+      return (checkCellNumber(pCellNumber) - 1) / fColumns + 1;
+   }
+
+   /**
+    * @param pCellNumber a 1-based cell number
+    * @return the 1-based column of the given cell
+    */
+   public int getColumn(final int pCellNumber)
+   {
+      return (checkCellNumber(pCellNumber) - 1) % fColumns + 1;
+   }
+
+   /**
+    * @param pSymmetry   a symmetry, from 0 to getSymmetryCount() - 1; 0 is the identity
+    * @param pCellNumber a 1-based cell number
+    * @return the 1-based number of the cell that the given symmetry moves the given cell to
+    */
+   public int getSymmetricCell(final int pSymmetry, final int pCellNumber)
+   {
+      if (pSymmetry < 0 || pSymmetry >= fSymmetries.length)
+      {
+         throw new IllegalArgumentException("no such symmetry. symmetry=" + pSymmetry);
+      }
+      return fSymmetries[pSymmetry][checkCellNumber(pCellNumber) - 1] + 1;
+   }
+
+   /**
+    * @param pSymmetry a symmetry, from 0 to getSymmetryCount() - 1
+    * @param pBits     a bitset of cells on this board
+    * @param pResult   a bitset to hold the cells that the given symmetry moves them to; must not be pBits
+    */
+   void permute(final int pSymmetry, final long[] pBits, final long[] pResult)
+   {
+      final int[] permutation = fSymmetries[pSymmetry];
+      Arrays.fill(pResult, 0L);
+      for (int cellIndex = MnkBits.nextSetBit(pBits, 0); cellIndex >= 0; cellIndex = MnkBits.nextSetBit(pBits, cellIndex + 1))
+      {
+         MnkBits.set(pResult, permutation[cellIndex]);
+      }
+   }
+
+   /**
+    * @param pLine a line, from 0 to getLineCount() - 1
+    * @return the 0-based indexes of the cells in the given line.  Owned by this geometry; must not be changed
+    */
+   int[] getLineCells(final int pLine)
+   {
+      return fLineCells[pLine];
+   }
+
+   /**
+    * @param pCellIndex the 0-based index of a cell
+    * @return the lines that pass through the given cell.  Owned by this geometry; must not be changed
+    */
+   int[] getLinesThroughCell(final int pCellIndex)
+   {
+      return fLinesThroughCell[pCellIndex];
+   }
+
+   /**
+    * @param pCellNumber a cell number to check
+    * @return the given cell number, if it's on this board
+    */
+   int checkCellNumber(final int pCellNumber)
+   {
+      if (pCellNumber < 1 || pCellNumber > fCellCount)
+      {
+         throw new IllegalArgumentException("cell number must be from 1 to " + fCellCount + ". cellNumber=" + pCellNumber);
+      }
+      return pCellNumber;
+   }
+
+   @Override
+   public String toString()
+   {
+      return "MnkGeometry{" +
+            "fRows=" + fRows +
+            ", fColumns=" + fColumns +
+            ", fWinLength=" + fWinLength +
+            '}';
+   }
+}
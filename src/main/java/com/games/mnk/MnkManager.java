@@ -0,0 +1,320 @@
+package com.games.mnk;
+
+import com.games.GameStatusInfo;
+import com.games.IGameBoard;
+import com.games.IGameInputProvider;
+import com.games.IGameManager;
+import com.games.IGameMove;
+import com.games.IGameOpponent;
+import com.games.InputParsingHelper;
+import com.games.PlayerEnum;
+import com.games.RenderingHelper;
+
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An implementation of the GameManager contract for m,n,k games of any size that MnkGeometry allows, played on an
+ * MnkBoard.
+ * <p>
+ * Some notes on the current implementation
+ * <p>
+ * - Just as with TicTacToe, the application is 'X' and always goes first, and the human is 'O'
+ * - The human enters the row and column of each move, just as in TicTacToe, but the numbers go up to the size of the
+ * board
+ * - The application plays tactically: it wins if it can, blocks the human if it must, and otherwise chooses an empty
+ * cell at random.  It doesn't learn from its losses on these boards (yet); the knowledge store only holds TicTacToe
+ * games, so there is nothing to save, and the application never quits
+ */
+public class MnkManager
+      implements IGameManager
+{
+
+
+   private final MnkGeometry fGeometry;
+
+   // Where the human's moves come from
+   private final IGameInputProvider fInputProvider;
+
+   /**
+    * @param pGeometry      the shape of the board to play on
+    * @param pInputProvider the source of the human's moves
+    */
+   public MnkManager(final MnkGeometry pGeometry, final IGameInputProvider pInputProvider)
+   {
+      fGeometry = Objects.requireNonNull(pGeometry, "geometry may not be null");
+      fInputProvider = Objects.requireNonNull(pInputProvider, "input provider may not be null");
+   }
+
+   @Override
+   public void introduceGameAndRules()
+   {
+      final StringBuilder frame = RenderingHelper.startFrame();
+      RenderingHelper.appendOutputLine(frame, "");
+      RenderingHelper.appendOutputLine(frame, "Welcome to " + getGameName() + ".  You'll be playing the computer (me!) today, so... good luck!");
+      RenderingHelper.appendOutputLine(frame, "");
+      RenderingHelper.appendOutputLine(frame, "We're playing on a board of " + fGeometry.getRows() + " rows and " + fGeometry.getColumns()
+            + " columns, and the first to get " + fGeometry.getWinLength() + " in a row - across, down or diagonally - wins.");
+      RenderingHelper.appendOutputLine(frame, "When entering your moves, please enter two numbers separated by a space, representing the row and column of your selection. ");
+      RenderingHelper.appendOutputLine(frame, "For example, to specify the top-left space, enter:   1 1");
+      RenderingHelper.appendOutputLine(frame, "");
+      RenderingHelper.appendOutputLine(frame, "I'll be going first - I'm 'X', and you'll be 'O'.");
+      RenderingHelper.appendOutputLine(frame, "");
+      RenderingHelper.renderFrame(frame);
+   }
+
+   @Override
+   public IGameBoard getNewGameBoard()
+   {
+      // Callers that play many games should reset() one board between games, rather than asking for a new one each time
+      return new MnkBoard(fGeometry);
+   }
+
+   @Override
+   public IGameMove getNextMove(final PlayerEnum pPlayer, final IGameBoard pGameBoard)
+   {
+      Objects.requireNonNull(pGameBoard, "game board may not be null");
+      Objects.requireNonNull(pPlayer, "player may not be null");
+      if (pPlayer == PlayerEnum.APPLICATION)
+      {
+         return getApplicationMove(pGameBoard, ThreadLocalRandom.current());
+      }
+
+      // Show the board to the human, before soliciting a move
+      renderBoard(pGameBoard);
+      return getGameMoveFromHuman(getMnkBoard(pGameBoard));
+   }
+
+   @Override
+   public IGameMove getApplicationMove(final IGameBoard pGameBoard, final Random pRandom)
+   {
+      Objects.requireNonNull(pGameBoard, "game board may not be null");
+      Objects.requireNonNull(pRandom, "random may not be null");
+      final MnkBoard mnkBoard = getMnkBoard(pGameBoard);
+      if (mnkBoard.getEmptyCellCount() == 0)
+      {
+         return new MnkMove(true);
+      }
+
+      // The application plays just as the tactical opponent does, but as 'X'
+      return new MnkMove(MnkOpponentEnum.TACTICAL.chooseCell(mnkBoard, MnkCellStatusEnum.X_SELECTED, pRandom),
+            MnkCellStatusEnum.X_SELECTED);
+   }
+
+   /**
+    * @param pMnkBoard the game board being used
+    * @return a move by this human.  Might possibly be a "Quit" move.
+    */
+   private IGameMove getGameMoveFromHuman(final MnkBoard pMnkBoard)
+   {
+      final StringBuilder frame = RenderingHelper.startFrame();
+      RenderingHelper.appendOutputLine(frame, "");
+      RenderingHelper.appendOutputLine(frame, "Your move!\n");
+      RenderingHelper.renderFrame(frame);
+
+      // Reused for each attempt, to hold the row and column as they're parsed
+      final int[] numbers = new int[2];
+      while (true)
+      {
+         RenderingHelper.renderOutputLine("Please enter the row and column of your next move, or 'q' to quit: ");
+         final String inputLine = fInputProvider.readLine();
+         RenderingHelper.renderOutputLine("");
+         if (inputLine == null || "q".equalsIgnoreCase(inputLine.trim()))
+         {
+            // Either the human has quit, or the input has run out and there's nobody left to play
+            return new MnkMove(true);
+         }
+
+         final int numberCount = InputParsingHelper.parseNumbers(inputLine, 0, numbers);
+         if (numberCount < 2)
+         {
+            RenderingHelper.renderOutputLine("Sorry, please enter two numbers separated by a space: the row, from 1 to "
+                  + fGeometry.getRows() + ", and then the column, from 1 to " + fGeometry.getColumns() + ".");
+         }
+         else if (numbers[0] < 1 || numbers[0] > fGeometry.getRows())
+         {
+            RenderingHelper.renderOutputLine("Sorry, " + numbers[0] + " is not a valid row number.");
+         }
+         else if (numbers[1] < 1 || numbers[1] > fGeometry.getColumns())
+         {
+            RenderingHelper.renderOutputLine("Sorry, " + numbers[1] + " is not a valid column number.");
+         }
+         else
+         {
+            final int cellNumber = fGeometry.getCellNumber(numbers[0], numbers[1]);
+            if (pMnkBoard.getCellStatus(cellNumber) == MnkCellStatusEnum.UNSELECTED)
+            {
+               return new MnkMove(cellNumber, MnkCellStatusEnum.O_SELECTED);
+            }
+            RenderingHelper.renderOutputLine("Sorry, that spot's already taken - you'll have to select another one.");
+         }
+      }
+   }
+
+   @Override
+   public GameStatusInfo getGameStatusInfo(final PlayerEnum pFinalPlayer, final IGameBoard pGameBoard)
+   {
+      Objects.requireNonNull(pGameBoard, "game board may not be null");
+      Objects.requireNonNull(pFinalPlayer, "player may not be null");
+
+      // The board keeps count of the lines each player has completed, so this doesn't look at the cells
+      return new GameStatusInfo(pFinalPlayer, getMnkBoard(pGameBoard).getGameStatus());
+   }
+
+   @Override
+   public void renderBoard(final IGameBoard pGameBoard)
+   {
+      Objects.requireNonNull(pGameBoard, "game board may not be null");
+      if (RenderingHelper.isQuiet())
+      {
+         return;
+      }
+
+      // The whole board is built up first, and then rendered with a single write
+      final StringBuilder frame = RenderingHelper.startFrame();
+      appendBoard(frame, getMnkBoard(pGameBoard));
+      RenderingHelper.renderFrame(frame);
+   }
+
+   @Override
+   public void renderFinalResults(final GameStatusInfo pGameStatusInfo, final IGameBoard pGameBoard)
+   {
+      Objects.requireNonNull(pGameBoard, "game board may not be null");
+      Objects.requireNonNull(pGameStatusInfo, "GameStatusInfo may not be null");
+      if (RenderingHelper.isQuiet())
+      {
+         return;
+      }
+
+      final String gameOverLead = "************* GAME OVER: ";
+      final String outputLine;
+      switch (pGameStatusInfo.getGameStatus())
+      {
+         case WON:
+            outputLine = gameOverLead + (pGameStatusInfo.getFinalPlayer() == PlayerEnum.APPLICATION
+                  ? "I won this time!" : "You won!");
+            break;
+         case TIE:
+            outputLine = gameOverLead + "It's a Tie!";
+            break;
+         case QUIT:
+            outputLine = gameOverLead + "Ok, we'll stop this particular game.";
+            break;
+         default:
+            throw new IllegalStateException("Should not be rendering final status if the game is still ongoing");
+      }
+
+      final StringBuilder frame = RenderingHelper.startFrame();
+      RenderingHelper.appendOutputLine(frame, outputLine);
+      RenderingHelper.appendOutputLine(frame, "");
+      RenderingHelper.appendOutputLine(frame, "Here's how the game ended: ");
+      appendBoard(frame, getMnkBoard(pGameBoard));
+      RenderingHelper.renderFrame(frame);
+   }
+
+   /**
+    * Nothing is learned from games on these boards yet, so there is nothing to save
+    *
+    * @param pGameBoard      the game board
+    * @param pGameStatusInfo the status of the game
+    */
+   @Override
+   public void saveResults(final IGameBoard pGameBoard, final GameStatusInfo pGameStatusInfo)
+   {
+      Objects.requireNonNull(pGameBoard, "game board may not be null");
+      Objects.requireNonNull(pGameStatusInfo, "GameStatusInfo may not be null");
+   }
+
+   @Override
+   public int getKnowledgeSize()
+   {
+      return 0;
+   }
+
+   @Override
+   public IGameOpponent getScriptedOpponent(final String pOpponentName)
+   {
+      Objects.requireNonNull(pOpponentName, "opponent name may not be null");
+      for (MnkOpponentEnum opponent : MnkOpponentEnum.values())
+      {
+         if (opponent.name().equalsIgnoreCase(pOpponentName.trim()))
+         {
+            return opponent;
+         }
+      }
+      throw new IllegalArgumentException("no scripted opponent with the given name. opponentName=" + pOpponentName);
+   }
+
+   /**
+    * @return the name of the game, such as "4,4,3"
+    */
+   private String getGameName()
+   {
+      return fGeometry.getRows() + "," + fGeometry.getColumns() + "," + fGeometry.getWinLength();
+   }
+
+   /**
+    * @param pFrame    the frame to add the board to
+    * @param pMnkBoard the board to add
+    */
+   private void appendBoard(final StringBuilder pFrame, final MnkBoard pMnkBoard)
+   {
+      // Rows and columns are numbered, since on larger boards they can't be counted at a glance
+      final StringBuilder line = new StringBuilder();
+      line.append("  ");
+      for (int column = 1; column <= fGeometry.getColumns(); column++)
+      {
+         appendPaddedNumber(line, column).append(' ');
+      }
+      RenderingHelper.appendOutputLine(pFrame, "");
+      RenderingHelper.appendOutputLine(pFrame, line.toString());
+
+      for (int row = 1; row <= fGeometry.getRows(); row++)
+      {
+         if (row > 1)
+         {
+            line.setLength(0);
+            line.append("   ");
+            for (int column = 1; column <= fGeometry.getColumns(); column++)
+            {
+               line.append(column > 1 ? "+---" : "---");
+            }
+            RenderingHelper.appendOutputLine(pFrame, line.toString());
+         }
+         line.setLength(0);
+         appendPaddedNumber(line, row);
+         for (int column = 1; column <= fGeometry.getColumns(); column++)
+         {
+            line.append(column > 1 ? "| " : " ")
+                  .append(pMnkBoard.getCellStatus(fGeometry.getCellNumber(row, column)).getRenderingValue())
+                  .append(' ');
+         }
+         RenderingHelper.appendOutputLine(pFrame, line.toString());
+      }
+      RenderingHelper.appendOutputLine(pFrame, "");
+   }
+
+   /**
+    * @param pLine   the line being built
+    * @param pNumber a row or column number, from 1 to MnkGeometry.MAX_DIMENSION
+    * @return the given line, with the number added, right-aligned in three characters
+    */
+   private static StringBuilder appendPaddedNumber(final StringBuilder pLine, final int pNumber)
+   {
+      return pLine.append(pNumber < 10 ? "  " : " ").append(pNumber);
+   }
+
+   /**
+    * @param pGameBoard the board to check
+    * @return the given board, as an MnkBoard of this game's shape
+    */
+   private MnkBoard getMnkBoard(final IGameBoard pGameBoard)
+   {
+      if (!(pGameBoard instanceof MnkBoard) || ((MnkBoard) pGameBoard).getGeometry() != fGeometry)
+      {
+         throw new IllegalArgumentException("given game board is not an m,n,k board of this game's shape");
+      }
+      return (MnkBoard) pGameBoard;
+   }
+}
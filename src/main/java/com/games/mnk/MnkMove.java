@@ -0,0 +1,81 @@
+package com.games.mnk;
+
+import com.games.IGameMove;
+
+/**
+ * A move on an m,n,k board: either a cell selected by a player, or the decision to stop playing.
+ * <p>
+ * Instances are immutable.
+ */
+public final class MnkMove
+      implements IGameMove
+{
+
+
+   private static final int NULL_CELL_NUMBER = -1;
+
+   private final int fCellNumber;
+   private final MnkCellStatusEnum fCellStatus;
+   private final boolean fChooseToStop;
+
+   /**
+    * @param pCellNumber a 1-based cell number, as described in MnkGeometry
+    * @param pCellStatus the new status to give the cell; X_SELECTED or O_SELECTED
+    */
+   public MnkMove(final int pCellNumber, final MnkCellStatusEnum pCellStatus)
+   {
+      if (pCellNumber < 1)
+      {
+         throw new IllegalArgumentException("cellNumber is not valid. cellNumber=" + pCellNumber);
+      }
+      if (pCellStatus == null || pCellStatus == MnkCellStatusEnum.UNSELECTED)
+      {
+         throw new IllegalArgumentException("cell status must be X_SELECTED or O_SELECTED. cellStatus=" + pCellStatus);
+      }
+      fCellNumber = pCellNumber;
+      fCellStatus = pCellStatus;
+      fChooseToStop = false;
+   }
+
+   /**
+    * @param pChooseToStop true if the player has decided to stop playing
+    */
+   public MnkMove(final boolean pChooseToStop)
+   {
+      fCellNumber = NULL_CELL_NUMBER;
+      fCellStatus = null;
+      fChooseToStop = pChooseToStop;
+   }
+
+   /**
+    * @return the 1-based number of the cell selected, or -1 if this move selects no cell
+    */
+   public int getCellNumber()
+   {
+      return fCellNumber;
+   }
+
+   /**
+    * @return the status of the move, or null if this move selects no cell
+    */
+   public MnkCellStatusEnum getCellStatus()
+   {
+      return fCellStatus;
+   }
+
+   @Override
+   public boolean isChooseToStop()
+   {
+      return fChooseToStop;
+   }
+
+   @Override
+   public String toString()
+   {
+      return "MnkMove{" +
+            "fCellNumber=" + fCellNumber +
+            ", fCellStatus=" + fCellStatus +
+            ", fChooseToStop=" + fChooseToStop +
+            '}';
+   }
+}
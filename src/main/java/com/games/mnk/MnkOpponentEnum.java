@@ -0,0 +1,95 @@
+package com.games.mnk;
+
+import com.games.IGameBoard;
+import com.games.IGameMove;
+import com.games.IGameOpponent;
+
+import java.util.Random;
+
+/**
+ * Scripted opponents for m,n,k games.  Each one plays 'O', in place of the human player.
+ */
+public enum MnkOpponentEnum
+      implements IGameOpponent
+{
+
+   // Chooses any empty cell, at random
+   RANDOM
+         {
+            @Override
+            int chooseCell(final MnkBoard pMnkBoard, final MnkCellStatusEnum pCellStatus, final Random pRandom)
+            {
+               return getRandomCell(pMnkBoard, pRandom);
+            }
+         },
+
+   // Always chooses the lowest-numbered empty cell
+   FIRST_AVAILABLE
+         {
+            @Override
+            int chooseCell(final MnkBoard pMnkBoard, final MnkCellStatusEnum pCellStatus, final Random pRandom)
+            {
+               return pMnkBoard.getNextEmptyCell(1);
+            }
+         },
+
+   // Wins if it can, blocks the other player if it must, and otherwise chooses at random
+   TACTICAL
+         {
+            @Override
+            int chooseCell(final MnkBoard pMnkBoard, final MnkCellStatusEnum pCellStatus, final Random pRandom)
+            {
+               final int winningCell = pMnkBoard.getCompletingCell(pCellStatus);
+               if (winningCell > 0)
+               {
+                  return winningCell;
+               }
+               final int blockingCell = pMnkBoard.getCompletingCell(pCellStatus == MnkCellStatusEnum.X_SELECTED
+                     ? MnkCellStatusEnum.O_SELECTED : MnkCellStatusEnum.X_SELECTED);
+               if (blockingCell > 0)
+               {
+                  return blockingCell;
+               }
+               return getRandomCell(pMnkBoard, pRandom);
+            }
+         };
+
+
+   /**
+    * @param pMnkBoard   the board to move on.  Has at least one empty cell
+    * @param pCellStatus the player to choose a cell for; X_SELECTED or O_SELECTED
+    * @param pRandom     the source of any random choices
+    * @return the 1-based number of the cell to select
+    */
+   abstract int chooseCell(MnkBoard pMnkBoard, MnkCellStatusEnum pCellStatus, Random pRandom);
+
+   @Override
+   public IGameMove getNextMove(final IGameBoard pGameBoard, final Random pRandom)
+   {
+      if (!(pGameBoard instanceof MnkBoard))
+      {
+         throw new IllegalArgumentException("given game board is not an m,n,k board");
+      }
+      final MnkBoard mnkBoard = (MnkBoard) pGameBoard;
+      if (mnkBoard.getEmptyCellCount() == 0)
+      {
+         return new MnkMove(true);
+      }
+      return new MnkMove(chooseCell(mnkBoard, MnkCellStatusEnum.O_SELECTED, pRandom), MnkCellStatusEnum.O_SELECTED);
+   }
+
+   /**
+    * @param pMnkBoard the board to choose from.  Has at least one empty cell
+    * @param pRandom   the source of the random choice
+    * @return the 1-based number of a randomly chosen empty cell
+    */
+   private static int getRandomCell(final MnkBoard pMnkBoard, final Random pRandom)
+   {
+      int cellNumber = pMnkBoard.getNextEmptyCell(1);
+      for (int skip = pRandom.nextInt(pMnkBoard.getEmptyCellCount()); skip > 0; skip--)
+      {
+         cellNumber = pMnkBoard.getNextEmptyCell(cellNumber + 1);
+      }
+      return cellNumber;
+   }
+}
@@ -0,0 +1,30 @@
+package com.games.tictactoe;
+
+/**
+ * Enum that gives the options for forcing appended knowledge out to the disk
+ */
+public enum FsyncPolicyEnum
+{
+
+   // Leave it to the operating system to decide when appended lines reach the disk.  A crash of the machine (but not
+   // of the application) may lose the most recent losses
+   NEVER(false),
+
+   // Force every appended line to the disk before carrying on.  Nothing is lost, at the cost of a disk flush per loss
+   EVERY_APPEND(true);
+
+   final boolean fForceOnAppend;
+
+   FsyncPolicyEnum(final boolean pForceOnAppend)
+   {
+      fForceOnAppend = pForceOnAppend;
+   }
+
+   /**
+    * @return true if each append should be forced to the disk
+    */
+   public boolean isForceOnAppend()
+   {
+      return fForceOnAppend;
+   }
+}
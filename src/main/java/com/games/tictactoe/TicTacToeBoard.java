@@ -1,15 +1,37 @@
 package com.games.tictactoe;
 
+import com.games.GameStatusEnum;
 import com.games.IGameBoard;
 import com.games.IGameMove;
 import com.games.RenderingHelper;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
 /**
  * A value object that simply contains board information
+ * <p>
+ * The board is held as two 9-bit masks, one for the cells selected by X and one for the cells selected by O.
+ * Cell number n (from 1 to 9) corresponds to bit (n - 1) of each mask:
+ * <pre>
+ *    1 2 3        bit 0  bit 1  bit 2
+ *    4 5 6   -->  bit 3  bit 4  bit 5
+ *    7 8 9        bit 6  bit 7  bit 8
+ * </pre>
+ * The empty cells are kept as a third mask, updated as moves are made and taken back, so that finding or counting the
+ * empty cells is a single read.  To visit them without allocating, walk the mask from getEmptyMask():
+ * <pre>
+ *    for (int emptyCells = board.getEmptyMask(); emptyCells != 0; emptyCells &amp;= emptyCells - 1)
+ *    {
+ *       final int cellNumber = Integer.numberOfTrailingZeros(emptyCells) + 1;
+ *       ...
+ *    }
+ * </pre>
+ * A board can be reused from game to game with reset(), moves can be taken back with undoMove(), and one board can be
+ * copied into another with copyInto(), none of which allocate.  Search and simulation can then keep one board per
+ * thread, rather than building a new one for every game or every position tried.
  */
 public class TicTacToeBoard
       implements IGameBoard
@@ -20,24 +42,86 @@ public class TicTacToeBoard
 
          MAX_CELLS = 9;
 
-   private final TicTacToeCell[] fBoardCells;
+   // A mask with a bit set for every cell on the board
+   private static final int FULL_BOARD_MASK = (1 << MAX_CELLS) - 1;
+
+   private int fXMask;
+   private int fOMask;
+   private int fEmptyMask = FULL_BOARD_MASK;
+
+   // The base-3 index of this position, as described in TicTacToeLookupTables
+   private int fPositionIndex;
+
+   // The Zobrist hash of this position as seen through each symmetry, the identity first (see TicTacToeZobrist)
+   private final long[] fSymmetricHashes = new long[TicTacToeSymmetry.SYMMETRY_COUNT];
+
+   // The moves so far, packed as described in TicTacToeMoveSequence
+   private long fMoveSequence = TicTacToeMoveSequence.EMPTY;
 
    private final List<TicTacToeMove> fMoveHistory;
 
    public TicTacToeBoard()
    {
+      // A game never has more moves than cells, so the history never needs to grow
+      fMoveHistory = new ArrayList<>(MAX_CELLS);
+   }
 
-      fMoveHistory = new ArrayList<>();
+   /**
+    * Clear every cell and the move history, ready for a new game
+    */
+   @Override
+   public void reset()
+   {
+      fXMask = 0;
+      fOMask = 0;
+      fEmptyMask = FULL_BOARD_MASK;
+      fPositionIndex = 0;
+      Arrays.fill(fSymmetricHashes, 0L);
+      fMoveSequence = TicTacToeMoveSequence.EMPTY;
+      fMoveHistory.clear();
+   }
 
-      fBoardCells = new TicTacToeCell[MAX_CELLS];
-      for (int i = 0; i < MAX_CELLS; i++)
+   /**
+    * Take back the last move made, clearing its cell
+    *
+    * @throws IllegalStateException if no moves have been made
+    */
+   public void undoMove()
+   {
+      if (fMoveHistory.isEmpty())
       {
-         fBoardCells[i] = new TicTacToeCell();
+         throw new IllegalStateException("there is no move to undo");
       }
+      final TicTacToeMove lastMove = fMoveHistory.remove(fMoveHistory.size() - 1);
+      setCellStatus(lastMove.getCellNumber(), CellStatusEnum.UNSELECTED);
+      fMoveSequence = TicTacToeMoveSequence.withoutLastMove(fMoveSequence);
    }
 
    /**
-    * @param pMove the move to make
+    * @param pTarget the board to make into a copy of this one; whatever it held before is discarded
+    */
+   public void copyInto(final TicTacToeBoard pTarget)
+   {
+      Objects.requireNonNull(pTarget, "target board may not be null");
+      if (pTarget == this)
+      {
+         return;
+      }
+      pTarget.fXMask = fXMask;
+      pTarget.fOMask = fOMask;
+      pTarget.fEmptyMask = fEmptyMask;
+      pTarget.fPositionIndex = fPositionIndex;
+      System.arraycopy(fSymmetricHashes, 0, pTarget.fSymmetricHashes, 0, fSymmetricHashes.length);
+      pTarget.fMoveSequence = fMoveSequence;
+      pTarget.fMoveHistory.clear();
+      for (int i = 0; i < fMoveHistory.size(); i++)
+      {
+         pTarget.fMoveHistory.add(fMoveHistory.get(i));
+      }
+   }
+
+   /**
+    * @param pMove the move to make; must select an empty cell, so that undoMove() can always take it back
     */
    @Override
    public void applyChosenMove(final IGameMove pMove)
@@ -57,11 +141,16 @@ public class TicTacToeBoard
          {
             throw new IllegalArgumentException("status may not be null");
          }
+         if ((fEmptyMask & cellBit(oneBasedCellNumber)) == 0)
+         {
+            throw new IllegalArgumentException("cell is already selected. cellNumber=" + oneBasedCellNumber);
+         }
 
 
          // Apply the move and add it to the history
          setCellStatus(oneBasedCellNumber, tttMove.getCellStatus());
          addMoveToHistory(tttMove);
+         fMoveSequence = TicTacToeMoveSequence.append(fMoveSequence, oneBasedCellNumber);
       }
       else
       {
@@ -78,24 +167,22 @@ public class TicTacToeBoard
    {
       Objects.requireNonNull(pCellStatus, "cellStatusEnum may not be null");
 
-      // There are 8 possible ways to win
-      return
-            // three rows
-            (isMatch(1, pCellStatus) && isMatch(2, pCellStatus) && isMatch(3, pCellStatus))
-                  || (isMatch(4, pCellStatus) && isMatch(5, pCellStatus) && isMatch(6, pCellStatus))
-                  || (isMatch(7, pCellStatus) && isMatch(8, pCellStatus) && isMatch(9, pCellStatus))
-                  // three columns
-                  || (isMatch(1, pCellStatus) && isMatch(4, pCellStatus) && isMatch(7, pCellStatus))
-                  || (isMatch(2, pCellStatus) && isMatch(5, pCellStatus) && isMatch(8, pCellStatus))
-                  || (isMatch(3, pCellStatus) && isMatch(6, pCellStatus) && isMatch(9, pCellStatus))
-                  // two diagonals
-                  || (isMatch(1, pCellStatus) && isMatch(5, pCellStatus) && isMatch(9, pCellStatus))
-                  || (isMatch(3, pCellStatus) && isMatch(5, pCellStatus) && isMatch(7, pCellStatus));
+      return TicTacToeLookupTables.isWinningOccupancy(getMaskForStatus(pCellStatus));
+   }
 
+   /**
+    * @return the status of the game on this board: WON if either player has a winning line, TIE if the board is
+    * full, and ONGOING otherwise.  Will not return null
+    */
+   public GameStatusEnum getGameStatus()
+   {
+      return TicTacToeLookupTables.getPositionStatus(fPositionIndex);
    }
 
 
    /**
+    * Builds a new list on every call; on hot paths, walk getXMask(), getOMask() or getEmptyMask() instead
+    *
     * @param pCellStatus the status to check for
     * @return a list of cells numbers that have the given status.  Will not return null.  May (of course) return an empty list
     */
@@ -104,29 +191,17 @@ public class TicTacToeBoard
       Objects.requireNonNull(pCellStatus, "cellStatusEnum may not be null");
 
       List<Integer> returnValue = new ArrayList<>();
-      for (int cellNumber = 1; cellNumber <= MAX_CELLS; cellNumber++)
+      int remainingCells = getMaskForStatus(pCellStatus);
+      while (remainingCells != 0)
       {
-         CellStatusEnum thisCellStatus = getCellStatus(cellNumber);
-         if (thisCellStatus == pCellStatus)
-         {
-            returnValue.add(cellNumber);
-         }
+         // Take the lowest set bit, and convert its 0-based position to a 1-based cell number
+         returnValue.add(Integer.numberOfTrailingZeros(remainingCells) + 1);
+         remainingCells &= remainingCells - 1;
       }
       return returnValue;
 
    }
 
-   /**
-    * @param pCellNumber  a value from 1 to 9
-    * @param pGivenStatus the status to see if it matches
-    * @return the calculation value of the status object at the given location
-    */
-   private boolean isMatch(final int pCellNumber, final CellStatusEnum pGivenStatus)
-   {
-      // convert cell  number to array pointer
-      return getCellStatus(pCellNumber) == pGivenStatus;
-   }
-
 
    /**
     * @param pCellNumber 1 based
@@ -138,8 +213,102 @@ public class TicTacToeBoard
       {
          throw new IllegalArgumentException("cell number must be from 1 to 9, but passed in value=" + pCellNumber);
       }
-      // convert cell  number to array pointer
-      return fBoardCells[pCellNumber - 1].getCellStatus();
+      final int cellBit = cellBit(pCellNumber);
+      if ((fXMask & cellBit) != 0)
+      {
+         return CellStatusEnum.X_SELECTED;
+      }
+      if ((fOMask & cellBit) != 0)
+      {
+         return CellStatusEnum.O_SELECTED;
+      }
+      return CellStatusEnum.UNSELECTED;
+   }
+
+   /**
+    * @return the cells selected by X, with cell number n held in bit (n - 1)
+    */
+   public int getXMask()
+   {
+      return fXMask;
+   }
+
+   /**
+    * @return the cells selected by O, with cell number n held in bit (n - 1)
+    */
+   public int getOMask()
+   {
+      return fOMask;
+   }
+
+   /**
+    * @return the cells that have not been selected, with cell number n held in bit (n - 1)
+    */
+   public int getEmptyMask()
+   {
+      return fEmptyMask;
+   }
+
+   /**
+    * @return the number of cells that have not been selected
+    */
+   public int getEmptyCellCount()
+   {
+      return Integer.bitCount(fEmptyMask);
+   }
+
+   /**
+    * @return the base-3 index of this position, from 0 to 19682, as described in TicTacToeLookupTables
+    */
+   public int getPositionIndex()
+   {
+      return fPositionIndex;
+   }
+
+   /**
+    * @return the moves made so far, packed as described in TicTacToeMoveSequence
+    */
+   long getMoveSequence()
+   {
+      return fMoveSequence;
+   }
+
+   /**
+    * @return the 64-bit Zobrist hash of this position, kept up to date as moves are made
+    */
+   public long getZobristHash()
+   {
+      return fSymmetricHashes[0];
+   }
+
+   /**
+    * @return a 64-bit Zobrist hash that is the same for this position and for all its rotations and flips
+    */
+   public long getCanonicalZobristHash()
+   {
+      long returnVal = fSymmetricHashes[0];
+      for (int symmetry = 1; symmetry < fSymmetricHashes.length; symmetry++)
+      {
+         returnVal = Math.min(returnVal, fSymmetricHashes[symmetry]);
+      }
+      return returnVal;
+   }
+
+   /**
+    * @param pCellStatus the status to get the mask for
+    * @return a mask of the cells that have the given status
+    */
+   private int getMaskForStatus(final CellStatusEnum pCellStatus)
+   {
+      switch (pCellStatus)
+      {
+         case X_SELECTED:
+            return fXMask;
+         case O_SELECTED:
+            return fOMask;
+         default:
+            return fEmptyMask;
+      }
    }
 
    /**
@@ -149,8 +318,42 @@ public class TicTacToeBoard
     */
    private void setCellStatus(final int pCellNumber, CellStatusEnum pCellStatus)
    {
-      // convert 1-based cell number to 0-based array pointer
-      fBoardCells[pCellNumber - 1].setCellStatus(pCellStatus);
+      final int positionWeight = TicTacToeLookupTables.POSITION_WEIGHTS[pCellNumber];
+      final int oldDigit = TicTacToeLookupTables.getPositionDigit(getCellStatus(pCellNumber));
+      final int newDigit = TicTacToeLookupTables.getPositionDigit(pCellStatus);
+      fPositionIndex += positionWeight * (newDigit - oldDigit);
+      for (int symmetry = 0; symmetry < fSymmetricHashes.length; symmetry++)
+      {
+         fSymmetricHashes[symmetry] ^= TicTacToeZobrist.getKey(symmetry, oldDigit, pCellNumber)
+               ^ TicTacToeZobrist.getKey(symmetry, newDigit, pCellNumber);
+      }
+
+      final int cellBit = cellBit(pCellNumber);
+      fXMask &= ~cellBit;
+      fOMask &= ~cellBit;
+      fEmptyMask &= ~cellBit;
+      if (pCellStatus == CellStatusEnum.X_SELECTED)
+      {
+         fXMask |= cellBit;
+      }
+      else if (pCellStatus == CellStatusEnum.O_SELECTED)
+      {
+         fOMask |= cellBit;
+      }
+      else
+      {
+         fEmptyMask |= cellBit;
+      }
+   }
+
+   /**
+    * @param pCellNumber a 1-based cell number
+    * @return the mask bit that corresponds to the given cell
+    */
+   private static int cellBit(final int pCellNumber)
+   {
+      // convert 1-based cell number to 0-based bit position
+      return 1 << (pCellNumber - 1);
    }
 
 
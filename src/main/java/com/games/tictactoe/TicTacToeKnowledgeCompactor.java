@@ -0,0 +1,155 @@
+package com.games.tictactoe;
+
+import com.games.GameStatusEnum;
+
+/**
+ * Compaction of the learned knowledge: drops the entries that can no longer make a difference to how the application
+ * plays.
+ * <p>
+ * Each entry is a sequence that ends with a move by the application (X) that went on to lose.  The application never
+ * makes a move that it knows to avoid; if every move open to it is to be avoided, it quits instead.  So:
+ * - Subsumed entries are dropped: once a sequence is known to lose, no longer sequence that starts with it can come
+ *   up again.  The exception is the opening move, which is chosen without looking at the knowledge, so the entries
+ *   under a one-move entry are kept.
+ * - "All moves bad" is folded into a single entry: if every move open to the application at some position is known to
+ *   lose, it can only quit there, so its move just before that is itself a move to avoid.  That one shorter entry
+ *   takes the place of every entry under it; it's the same entry that would be learned the next time the application
+ *   quit at that position.  Folding carries on up the trie for as long as it applies.
+ * <p>
+ * Since the entries are canonical, the moves open to the application at a position are its empty cells reduced to
+ * their canonical cells, under the symmetries that leave the moves so far unchanged (see TicTacToeSymmetry).
+ */
+final class TicTacToeKnowledgeCompactor
+{
+
+
+   private TicTacToeKnowledgeCompactor()
+   {
+      // static methods only
+   }
+
+   /**
+    * @param pMovesToAvoid the entries to compact; not changed
+    * @return a new trie holding the entries that are left once compacted.  Will not return null
+    */
+   static TicTacToeKnowledgeTrie compact(final TicTacToeKnowledgeTrie pMovesToAvoid)
+   {
+      final boolean[] isToAvoid = new boolean[pMovesToAvoid.getNodeCount()];
+      markMovesToAvoid(pMovesToAvoid, TicTacToeKnowledgeTrie.ROOT, 0, 0, TicTacToeSymmetry.ALL_SYMMETRIES, isToAvoid);
+
+      final TicTacToeKnowledgeTrie returnVal = new TicTacToeKnowledgeTrie();
+      addRemainingEntries(pMovesToAvoid, TicTacToeKnowledgeTrie.ROOT, TicTacToeMoveSequence.EMPTY, isToAvoid, returnVal);
+      return returnVal;
+   }
+
+   /**
+    * Work out, from the leaves up, which nodes end a sequence to avoid once "all moves bad" has been folded in
+    *
+    * @param pMovesToAvoid        the entries to compact
+    * @param pNode                the node to start from
+    * @param pXMask               the occupancy mask of the cells holding an X at the node
+    * @param pOMask               the occupancy mask of the cells holding an O at the node
+    * @param pCandidateSymmetries a mask of the symmetries that leave the moves up to the node unchanged
+    * @param pIsToAvoid           set for each node that ends a sequence to avoid
+    * @return for a node at which the application is to move, true if every move open to it is to be avoided; for
+    * any other node, true if the node ends a sequence to avoid
+    */
+   private static boolean markMovesToAvoid(final TicTacToeKnowledgeTrie pMovesToAvoid, final int pNode, final int pXMask,
+                                           final int pOMask, final int pCandidateSymmetries, final boolean[] pIsToAvoid)
+   {
+      final int length = Integer.bitCount(pXMask) + Integer.bitCount(pOMask);
+      final boolean isApplicationToMove = length % 2 == 0;
+      boolean isToAvoid = pMovesToAvoid.isTerminal(pNode);
+      int cellsToAvoid = 0;
+      if (pMovesToAvoid.hasChildren(pNode))
+      {
+         for (int cellNumber = 1; cellNumber <= TicTacToeLookupTables.MAX_CELLS; cellNumber++)
+         {
+            final int child = pMovesToAvoid.getChild(pNode, cellNumber);
+            if (child == TicTacToeKnowledgeTrie.NO_NODE)
+            {
+               continue;
+            }
+            final int cellBit = 1 << (cellNumber - 1);
+            final boolean isChildResult = markMovesToAvoid(pMovesToAvoid, child,
+                  isApplicationToMove ? pXMask | cellBit : pXMask,
+                  isApplicationToMove ? pOMask : pOMask | cellBit,
+                  TicTacToeSymmetry.getRemainingSymmetries(pCandidateSymmetries, cellNumber), pIsToAvoid);
+            if (isChildResult)
+            {
+               cellsToAvoid |= cellBit;
+            }
+         }
+      }
+
+      // If the opponent's reply leaves the application nothing but to quit, the move before it is a move to avoid
+      if (!isApplicationToMove && cellsToAvoid != 0 && isConsultedMove(length))
+      {
+         isToAvoid = true;
+      }
+      pIsToAvoid[pNode] = isToAvoid;
+      if (!isApplicationToMove)
+      {
+         return isToAvoid;
+      }
+
+      if (TicTacToeLookupTables.getPositionStatus(TicTacToeLookupTables.getPositionIndex(pXMask, pOMask)) != GameStatusEnum.ONGOING)
+      {
+         return false;
+      }
+      int canonicalEmptyCells = 0;
+      int remainingCells = ~(pXMask | pOMask) & (TicTacToeLookupTables.OCCUPANCY_COUNT - 1);
+      while (remainingCells != 0)
+      {
+         final int cellNumber = Integer.numberOfTrailingZeros(remainingCells) + 1;
+         canonicalEmptyCells |= 1 << (TicTacToeSymmetry.getCanonicalCell(pCandidateSymmetries, cellNumber) - 1);
+         remainingCells &= remainingCells - 1;
+      }
+      return (canonicalEmptyCells & ~cellsToAvoid) == 0;
+   }
+
+   /**
+    * Add the sequences to avoid under the given node to the given trie, skipping those under a shorter one
+    *
+    * @param pMovesToAvoid the entries to compact
+    * @param pNode         the node to start from
+    * @param pSequence     the packed sequence that leads to the node
+    * @param pIsToAvoid    the nodes that end a sequence to avoid, as set by markMovesToAvoid()
+    * @param pCompacted    the trie to add the sequences to
+    */
+   private static void addRemainingEntries(final TicTacToeKnowledgeTrie pMovesToAvoid, final int pNode,
+                                           final long pSequence, final boolean[] pIsToAvoid,
+                                           final TicTacToeKnowledgeTrie pCompacted)
+   {
+      if (pIsToAvoid[pNode])
+      {
+         pCompacted.add(pSequence);
+         if (isConsultedMove(TicTacToeMoveSequence.length(pSequence)))
+         {
+            return;
+         }
+      }
+      if (pMovesToAvoid.hasChildren(pNode))
+      {
+         for (int cellNumber = 1; cellNumber <= TicTacToeLookupTables.MAX_CELLS; cellNumber++)
+         {
+            final int child = pMovesToAvoid.getChild(pNode, cellNumber);
+            if (child != TicTacToeKnowledgeTrie.NO_NODE)
+            {
+               addRemainingEntries(pMovesToAvoid, child, TicTacToeMoveSequence.append(pSequence, cellNumber),
+                     pIsToAvoid, pCompacted);
+            }
+         }
+      }
+   }
+
+   /**
+    * @param pLength the number of moves in a sequence
+    * @return true if the last move of a sequence of the given length is made by the application, and chosen by
+    * looking at the knowledge: any of its moves but the first
+    */
+   private static boolean isConsultedMove(final int pLength)
+   {
+      return pLength % 2 == 1 && pLength > 1;
+   }
+}
@@ -0,0 +1,314 @@
+package com.games.tictactoe;
+
+import com.games.RenderingHelper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * The log files that hold the knowledge between runs of the application.
+ * <p>
+ * The concise log is what we really use; it holds one move summary per line, and is read back in the next time we
+ * start up.  The verbose log is never read back in by this current application; it's written out to satisfy the
+ * requirements (perhaps some other application needs the data in that format?), so it's written in the background
+ * (see TicTacToeVerboseLogWriter), and may lag behind the concise log.
+ * <p>
+ * The logs are append-only: each new entry is appended as a single line to each file, so the cost of saving a loss
+ * does not grow with the size of the knowledge.  The files are only rewritten in full when compacted, which happens
+ * on demand, or when the concise log has grown past a size threshold and holds lines that are no longer needed (for
+ * example, the extra variants held in logs written before only canonical sequences were kept).
+ * <p>
+ * The fsync policy and the compaction threshold may be set with the system properties "ttt.fsyncPolicy" (NEVER or
+ * EVERY_APPEND) and "ttt.compactionThresholdBytes".  The files are kept in the directory where the application is
+ * run, unless another directory is given with the system property "ttt.dataDir".
+ * <p>
+ * Alongside the logs, there may be a binary knowledge file (see TicTacToeMappedKnowledge), which holds the entries
+ * from the start of the concise log up to a recorded length.  When it is there, only the lines appended to the
+ * concise log since it was written need to be read at startup.  It's only written on request, but once it's there,
+ * it's kept in step with the logs whenever they are compacted.
+ */
+final class TicTacToeKnowledgeLog
+{
+
+
+   // These file names are hard-coded here; in a real project, they'd probably be specified in some more
+   // flexible way (e.g., a properties file of some sort
+   private static final String FILE_NAME_VERBOSE = "tttVerbose.log";
+   private static final String FILE_NAME_CONCISE = "tttConcise.log";
+   private static final String FILE_NAME_KNOWLEDGE = "tttKnowledge.bin";
+
+   private static final String PROPERTY_DATA_DIRECTORY = "ttt.dataDir";
+   private static final String PROPERTY_FSYNC_POLICY = "ttt.fsyncPolicy";
+   private static final String PROPERTY_COMPACTION_THRESHOLD = "ttt.compactionThresholdBytes";
+
+   private static final long DEFAULT_COMPACTION_THRESHOLD_BYTES = 1024 * 1024;
+
+   private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+   private final File fConciseFile;
+   private final File fKnowledgeFile;
+   private final FsyncPolicyEnum fFsyncPolicy;
+
+   // Once the concise log grows past this size, it is compacted if it holds unneeded lines
+   private long fCompactionThresholdBytes;
+
+   private final TicTacToeVerboseLogWriter fVerboseLogWriter;
+
+   // What we know about the concise log as it stands on disk
+   private long fConciseLineCount;
+   private long fConciseFileLength;
+
+   /**
+    * @param pDataDirectory            the directory that holds the files
+    * @param pFsyncPolicy              when to force appended lines to the disk
+    * @param pCompactionThresholdBytes the size of concise log past which it may be compacted
+    */
+   TicTacToeKnowledgeLog(final File pDataDirectory, final FsyncPolicyEnum pFsyncPolicy, final long pCompactionThresholdBytes)
+   {
+      fConciseFile = new File(pDataDirectory, FILE_NAME_CONCISE);
+      fKnowledgeFile = new File(pDataDirectory, FILE_NAME_KNOWLEDGE);
+      fVerboseLogWriter = new TicTacToeVerboseLogWriter(new File(pDataDirectory, FILE_NAME_VERBOSE));
+      fFsyncPolicy = pFsyncPolicy;
+      fCompactionThresholdBytes = pCompactionThresholdBytes;
+   }
+
+   /**
+    * @return a log configured from the system properties, or with default settings where they are not given
+    */
+   static TicTacToeKnowledgeLog fromSystemProperties()
+   {
+      final FsyncPolicyEnum fsyncPolicy = FsyncPolicyEnum.valueOf(
+            System.getProperty(PROPERTY_FSYNC_POLICY, FsyncPolicyEnum.NEVER.name()).trim().toUpperCase());
+      final long compactionThresholdBytes = Long.getLong(PROPERTY_COMPACTION_THRESHOLD, DEFAULT_COMPACTION_THRESHOLD_BYTES);
+      final File dataDirectory = new File(System.getProperty(PROPERTY_DATA_DIRECTORY, "."));
+      return new TicTacToeKnowledgeLog(dataDirectory, fsyncPolicy, compactionThresholdBytes);
+   }
+
+   /**
+    * @return the entries in the binary knowledge file, or no entries if there is no such file, or it doesn't match the
+    * concise log.  Will not return null
+    */
+   synchronized TicTacToeMappedKnowledge openKnowledgeFile()
+   {
+      if (!fKnowledgeFile.exists())
+      {
+         return TicTacToeMappedKnowledge.EMPTY;
+      }
+      try
+      {
+         final TicTacToeMappedKnowledge returnVal = TicTacToeMappedKnowledge.map(fKnowledgeFile);
+
+         // If the concise log is now shorter than when the file was written, it was replaced by something else
+         if (returnVal.getLogLength() > fConciseFile.length())
+         {
+            RenderingHelper.renderLoggingLine("openKnowledgeFile: knowledge file is out of date with the concise log; ignoring it");
+            return TicTacToeMappedKnowledge.EMPTY;
+         }
+         return returnVal;
+      }
+      catch (IOException e)
+      {
+         RenderingHelper.renderLoggingLine("openKnowledgeFile: problem reading. e=" + e);
+         return TicTacToeMappedKnowledge.EMPTY;
+      }
+   }
+
+   /**
+    * Read the rows in the concise log that are not already in the given knowledge, if there is a concise log
+    *
+    * @param pKnowledge     the knowledge from the binary file, which holds the start of the concise log
+    * @param pEntryConsumer receives the packed sequence for each row
+    */
+   synchronized void read(final TicTacToeMappedKnowledge pKnowledge, final LongConsumer pEntryConsumer)
+   {
+      fConciseLineCount = pKnowledge.getLogLineCount();
+      fConciseFileLength = pKnowledge.getLogLength();
+      boolean isFileExists = fConciseFile.exists();
+      if (isFileExists)
+      {
+         try (
+               final FileInputStream in = new FileInputStream(fConciseFile);
+               BufferedReader br = new BufferedReader(new InputStreamReader(in, "utf-8")))
+         {
+            in.getChannel().position(pKnowledge.getLogLength());
+            String thisLine;
+            while ((thisLine = br.readLine()) != null)
+            {
+               if (!thisLine.isEmpty())
+               {
+                  pEntryConsumer.accept(TicTacToeMoveSequence.fromConciseString(thisLine));
+               }
+               fConciseLineCount++;
+            }
+            fConciseFileLength = fConciseFile.length();
+         }
+         catch (IOException e)
+         {
+            RenderingHelper.renderLoggingLine("error e=" + e);
+         }
+      }
+   }
+
+   /**
+    * Append a new entry to the concise log, queue it for the verbose log, and compact them if they have grown past the
+    * threshold
+    *
+    * @param pSequence         the packed sequence to append
+    * @param pLiveEntryCount   the number of entries in the knowledge once the new one was added, counted while this
+    *                          log was held, so that no other append or rewrite has come in between
+    * @param pEntriesToCompact supplies all the entries, in sorted order, if the logs need to be compacted
+    */
+   synchronized void append(final long pSequence, final int pLiveEntryCount, final Supplier<long[]> pEntriesToCompact)
+   {
+      final String moveSummary = TicTacToeMoveSequence.toConciseString(pSequence);
+      final byte[] conciseLine = (moveSummary + "\n").getBytes(StandardCharsets.UTF_8);
+      try
+      {
+         appendLine(fConciseFile, conciseLine);
+         fConciseLineCount++;
+         fConciseFileLength += conciseLine.length;
+      }
+      catch (IOException e)
+      {
+         RenderingHelper.renderLoggingLine("append: problem writing. e=" + e);
+         return;
+      }
+      fVerboseLogWriter.append(pSequence);
+
+      if (fConciseFileLength > fCompactionThresholdBytes)
+      {
+         if (fConciseLineCount > pLiveEntryCount)
+         {
+            rewrite(pEntriesToCompact);
+         }
+         // Don't consider compacting again until the log has doubled, so that the cost of compaction stays
+         // proportional to the number of appends
+         fCompactionThresholdBytes = Math.max(fCompactionThresholdBytes, 2 * fConciseFileLength);
+      }
+   }
+
+   /**
+    * Overwrite both logs with the given entries, along with the binary knowledge file if there is one.  Each file is
+    * written to a temporary file first, and then moved over the existing one, so that a crash part-way through never
+    * leaves a truncated log.  The verbose log is rewritten in the background.
+    *
+    * @param pEntriesToWrite supplies the packed sequences to write, in the order to write them.  It's called while
+    *                        appends are held off, so that no entry is lost from the logs
+    */
+   synchronized void rewrite(final Supplier<long[]> pEntriesToWrite)
+   {
+      final long[] sortedEntries = pEntriesToWrite.get();
+      final File conciseTemporaryFile = new File(fConciseFile.getPath() + TEMPORARY_FILE_SUFFIX);
+      long conciseLineCount = 0;
+      try (
+            final FileOutputStream conciseOut = new FileOutputStream(conciseTemporaryFile);
+            Writer conciseWriter = new BufferedWriter(new OutputStreamWriter(conciseOut, "utf-8")))
+      {
+         for (long sequence : sortedEntries)
+         {
+            // Write out concise entry to concise file
+            conciseWriter.write(TicTacToeMoveSequence.toConciseString(sequence));
+            conciseWriter.write("\n");
+            conciseLineCount++;
+         }
+         conciseWriter.flush();
+         if (fFsyncPolicy.isForceOnAppend())
+         {
+            conciseOut.getChannel().force(false);
+         }
+      }
+      catch (IOException e)
+      {
+         RenderingHelper.renderLoggingLine("rewrite: problem writing. e=" + e);
+         return;
+      }
+
+      try
+      {
+         Files.move(conciseTemporaryFile.toPath(), fConciseFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+         fConciseLineCount = conciseLineCount;
+         fConciseFileLength = fConciseFile.length();
+      }
+      catch (IOException e)
+      {
+         RenderingHelper.renderLoggingLine("rewrite: problem replacing the logs. e=" + e);
+         return;
+      }
+      fVerboseLogWriter.rewrite(sortedEntries);
+
+      // The old knowledge file no longer matches the start of the concise log
+      if (fKnowledgeFile.exists())
+      {
+         writeKnowledgeFile(sortedEntries);
+      }
+   }
+
+   /**
+    * Rewrite the verbose log from scratch, and wait for it to be written
+    *
+    * @param pEntriesToWrite supplies the packed sequences to write, in the order to write them
+    */
+   synchronized void exportVerboseLog(final Supplier<long[]> pEntriesToWrite)
+   {
+      fVerboseLogWriter.rewrite(pEntriesToWrite.get());
+      fVerboseLogWriter.flush();
+   }
+
+   /**
+    * Write the binary knowledge file, so that the next startup only needs to read what is appended to the concise log
+    * after this point
+    *
+    * @param pEntriesToWrite supplies every packed sequence in the logs.  It's called while appends are held off, so
+    *                        that every line in the concise log is covered by the file
+    */
+   synchronized void writeKnowledgeFile(final Supplier<long[]> pEntriesToWrite)
+   {
+      writeKnowledgeFile(pEntriesToWrite.get());
+   }
+
+   /**
+    * @param pEntries every packed sequence in the logs, in any order
+    */
+   private void writeKnowledgeFile(final long[] pEntries)
+   {
+      final File temporaryFile = new File(fKnowledgeFile.getPath() + TEMPORARY_FILE_SUFFIX);
+      try
+      {
+         TicTacToeMappedKnowledge.write(temporaryFile, pEntries, fConciseFileLength, fConciseLineCount);
+         Files.move(temporaryFile.toPath(), fKnowledgeFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+      catch (IOException e)
+      {
+         RenderingHelper.renderLoggingLine("writeKnowledgeFile: problem writing. e=" + e);
+      }
+   }
+
+   /**
+    * @param pFile the file to append to; created if it doesn't exist
+    * @param pLine the encoded line to append
+    * @throws IOException if the line could not be written
+    */
+   private void appendLine(final File pFile, final byte[] pLine) throws IOException
+   {
+      try (final FileOutputStream out = new FileOutputStream(pFile, true))
+      {
+         out.write(pLine);
+         if (fFsyncPolicy.isForceOnAppend())
+         {
+            out.getChannel().force(false);
+         }
+      }
+   }
+}
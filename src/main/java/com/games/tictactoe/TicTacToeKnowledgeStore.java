@@ -0,0 +1,403 @@
+package com.games.tictactoe;
+
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The learned knowledge of the application: the move sequences that should be avoided.
+ * <p>
+ * Each entry is a move sequence packed into a long (see TicTacToeMoveSequence).  The entries are held in a prefix
+ * trie (see TicTacToeKnowledgeTrie), so that shared prefixes are stored once, and so that deciding on a move costs one
+ * trie step per move played so far plus one child lookup per candidate, however many entries there are.  In the log
+ * files, each entry is written as a String of concatenated single digits, each digit representing a single move by
+ * a player on a particular TicTacToe cell.
+ * <p>
+ * Sequences that are rotations or flips of each other are functionally equivalent, so the store only holds the
+ * canonical form of each one (see TicTacToeSymmetry); every sequence passed in is canonicalized before it is added
+ * or looked up.
+ * <p>
+ * A store loaded from the log files may also start from a binary knowledge file (see TicTacToeMappedKnowledge),
+ * which is memory-mapped and searched in place rather than loaded into the trie.  The trie then only holds the
+ * entries appended to the logs since that file was written, and entries learned while running.
+ * <p>
+ * A store is safe to share between threads: any number of games may look up and add entries at the same time.
+ * A store loaded from the log files appends each new entry to them as it is added (see TicTacToeKnowledgeLog).  When
+ * the logs are compacted, entries are written out in sorted order, so the compacted files for a given set of entries
+ * are always the same, no matter in what order the entries were learned.
+ * <p>
+ * Entries that can no longer make a difference to how the application plays are dropped when the store is compacted
+ * (see TicTacToeKnowledgeCompactor).  A store loaded from the log files compacts its entries by itself each time they
+ * double in number, so that the entries held stay in proportion to what is really known; compact() does the same on
+ * request, and also rewrites the log files.
+ */
+public class TicTacToeKnowledgeStore
+{
+
+
+   // The first size at which a store loaded from the log files compacts its entries by itself
+   private static final int MIN_COMPACTION_THRESHOLD_ENTRIES = 1024;
+
+   // Returned by addEntry() for a sequence that was already known
+   private static final int NOT_ADDED = -1;
+
+   // Replaced when the entries are compacted; guarded by fLock, like every field below that isn't final
+   private TicTacToeKnowledgeTrie fMovesToAvoid;
+
+   // Entries from the binary knowledge file, which are never also held in the trie.  Once the entries are compacted,
+   // they are all held in the trie, and this is empty
+   private TicTacToeMappedKnowledge fMappedMovesToAvoid;
+
+   // Once the store holds this many entries, they are compacted if the store is backed by the log files
+   private int fCompactionThresholdEntries;
+
+   // Lookups far outnumber additions, so lookups share the read lock
+   private final ReadWriteLock fLock = new ReentrantReadWriteLock();
+
+   // null for in-memory stores, such as snapshots, which are never written out
+   private final TicTacToeKnowledgeLog fLog;
+
+   // Times the loads and writes of the log files
+   private final TicTacToeMetrics fMetrics = TicTacToeMetrics.getInstance();
+
+   private TicTacToeKnowledgeStore(final TicTacToeKnowledgeLog pLog, final TicTacToeMappedKnowledge pMappedMovesToAvoid,
+                                   final TicTacToeKnowledgeTrie pMovesToAvoid)
+   {
+      fLog = pLog;
+      fMappedMovesToAvoid = pMappedMovesToAvoid;
+      fMovesToAvoid = pMovesToAvoid;
+
+      // Nothing is compacted while the entries are being loaded, so that what was loaded is what is in the files
+      fCompactionThresholdEntries = Integer.MAX_VALUE;
+   }
+
+   /**
+    * Logs written before the store kept only canonical sequences hold all 8 variants of each sequence; these collapse
+    * to a single entry here, and the extra lines are dropped the next time the logs are compacted.
+    *
+    * @return a store holding the rows in the binary knowledge file and the concise log, which will append each new
+    * entry to the log files
+    */
+   public static TicTacToeKnowledgeStore loadFromLogFiles()
+   {
+      final TicTacToeMetrics metrics = TicTacToeMetrics.getInstance();
+      final long startNanos = metrics.startTimer();
+      final TicTacToeKnowledgeLog log = TicTacToeKnowledgeLog.fromSystemProperties();
+      final TicTacToeMappedKnowledge mappedMovesToAvoid = log.openKnowledgeFile();
+      final TicTacToeKnowledgeStore returnVal = new TicTacToeKnowledgeStore(log, mappedMovesToAvoid,
+            new TicTacToeKnowledgeTrie());
+      log.read(mappedMovesToAvoid, sequence -> returnVal.addEntry(TicTacToeSymmetry.canonicalize(sequence)));
+      returnVal.fCompactionThresholdEntries = Math.max(MIN_COMPACTION_THRESHOLD_ENTRIES, 2 * returnVal.size());
+      metrics.recordKnowledgeLoad(startNanos);
+      return returnVal;
+   }
+
+   /**
+    * @return an empty store that is never written to a file
+    */
+   public static TicTacToeKnowledgeStore createInMemory()
+   {
+      return new TicTacToeKnowledgeStore(null, TicTacToeMappedKnowledge.EMPTY, new TicTacToeKnowledgeTrie());
+   }
+
+   /**
+    * Walk the trie along the canonical form of the moves so far, then look up each candidate as a single child of the
+    * node reached.  If that node has no children, nothing is known past this point, and the candidates are skipped.
+    * Candidates are also looked up in the mapped entries, if there are any, by their full canonical sequence.
+    *
+    * @param pMovesSoFar the packed sequence of moves played so far
+    * @param pEmptyCells a mask of the empty cells, with cell number n held in bit (n - 1)
+    * @return a mask of the empty cells whose move should be avoided, as it (or a rotation or flip of it) leads to a
+    * known sequence to avoid
+    */
+   int getCellsToAvoid(final long pMovesSoFar, final int pEmptyCells)
+   {
+      fLock.readLock().lock();
+      try
+      {
+         final boolean isMappedSearched = fMappedMovesToAvoid.size() != 0;
+         int node = TicTacToeKnowledgeTrie.ROOT;
+         boolean isInTrie = true;
+         long canonicalMovesSoFar = TicTacToeMoveSequence.EMPTY;
+         int candidateSymmetries = TicTacToeSymmetry.ALL_SYMMETRIES;
+         final int length = TicTacToeMoveSequence.length(pMovesSoFar);
+         for (int i = 0; i < length; i++)
+         {
+            final int cellNumber = TicTacToeMoveSequence.moveAt(pMovesSoFar, i);
+            final int canonicalCell = TicTacToeSymmetry.getCanonicalCell(candidateSymmetries, cellNumber);
+            if (isInTrie)
+            {
+               node = fMovesToAvoid.getChild(node, canonicalCell);
+               isInTrie = node != TicTacToeKnowledgeTrie.NO_NODE;
+            }
+            if (!isInTrie && !isMappedSearched)
+            {
+               return 0;
+            }
+            canonicalMovesSoFar = TicTacToeMoveSequence.append(canonicalMovesSoFar, canonicalCell);
+            candidateSymmetries = TicTacToeSymmetry.getRemainingSymmetries(candidateSymmetries, cellNumber);
+         }
+         final boolean isTrieSearched = isInTrie && fMovesToAvoid.hasChildren(node);
+         if (!isTrieSearched && !isMappedSearched)
+         {
+            return 0;
+         }
+
+         int returnVal = 0;
+         int remainingCells = pEmptyCells;
+         while (remainingCells != 0)
+         {
+            final int cellBit = Integer.lowestOneBit(remainingCells);
+            final int cellNumber = Integer.numberOfTrailingZeros(cellBit) + 1;
+            final int canonicalCell = TicTacToeSymmetry.getCanonicalCell(candidateSymmetries, cellNumber);
+            final int child = isTrieSearched ? fMovesToAvoid.getChild(node, canonicalCell) : TicTacToeKnowledgeTrie.NO_NODE;
+            if ((child != TicTacToeKnowledgeTrie.NO_NODE && fMovesToAvoid.isTerminal(child))
+                  || (isMappedSearched && fMappedMovesToAvoid.contains(TicTacToeMoveSequence.append(canonicalMovesSoFar, canonicalCell))))
+            {
+               returnVal |= cellBit;
+            }
+            remainingCells &= remainingCells - 1;
+         }
+         return returnVal;
+      }
+      finally
+      {
+         fLock.readLock().unlock();
+      }
+   }
+
+   /**
+    * Add the given sequence, and for a store that is backed by the log files, append it to the logs if it is new
+    *
+    * @param pSequence the packed move sequence to add; must hold at least one move
+    * @return true if neither the given sequence nor any rotation or flip of it was already known
+    */
+   boolean add(final long pSequence)
+   {
+      if (TicTacToeMoveSequence.length(pSequence) == 0)
+      {
+         throw new IllegalArgumentException("the empty move sequence may not be added");
+      }
+      final long canonicalSequence = TicTacToeSymmetry.canonicalize(pSequence);
+      if (fLog == null)
+      {
+         return addEntry(canonicalSequence) != NOT_ADDED;
+      }
+
+      // The log is held from before the entry is added until it has been appended, so that no rewrite of the logs can
+      // come in between, write out the new entry, and then have it appended a second time.  The log is taken before
+      // the store's lock, just as when an append rewrites the logs; the lock itself is released before the file is
+      // written, so that lookups are never held up by the disk
+      synchronized (fLog)
+      {
+         final int liveEntryCount = addEntry(canonicalSequence);
+         if (liveEntryCount == NOT_ADDED)
+         {
+            return false;
+         }
+         final long startNanos = fMetrics.startTimer();
+         fLog.append(canonicalSequence, liveEntryCount, this::getSortedEntries);
+         fMetrics.recordKnowledgeSave(startNanos);
+         return true;
+      }
+   }
+
+   /**
+    * @param pOtherStore the store whose entries are to be added to this one
+    * @return true if at least one of the other store's entries was not already known
+    */
+   public boolean addAll(final TicTacToeKnowledgeStore pOtherStore)
+   {
+      Objects.requireNonNull(pOtherStore, "other store may not be null");
+      boolean isChanged = false;
+      for (long canonicalSequence : pOtherStore.getSortedEntries())
+      {
+         isChanged |= add(canonicalSequence);
+      }
+      return isChanged;
+   }
+
+   /**
+    * @return the number of canonical move sequences to avoid
+    */
+   public int size()
+   {
+      fLock.readLock().lock();
+      try
+      {
+         return fMappedMovesToAvoid.size() + fMovesToAvoid.size();
+      }
+      finally
+      {
+         fLock.readLock().unlock();
+      }
+   }
+
+   /**
+    * @return an in-memory copy of this store, which will not see entries that are later added to this store.  The
+    * mapped entries are never changed, so they are shared rather than copied
+    */
+   public TicTacToeKnowledgeStore snapshot()
+   {
+      fLock.readLock().lock();
+      try
+      {
+         return new TicTacToeKnowledgeStore(null, fMappedMovesToAvoid, new TicTacToeKnowledgeTrie(fMovesToAvoid));
+      }
+      finally
+      {
+         fLock.readLock().unlock();
+      }
+   }
+
+   /**
+    * @return the canonical packed sequences in this store, in the same order as their concise Strings
+    */
+   private long[] getSortedEntries()
+   {
+      fLock.readLock().lock();
+      try
+      {
+         return getAllMovesToAvoid().toArray();
+      }
+      finally
+      {
+         fLock.readLock().unlock();
+      }
+   }
+
+   /**
+    * The caller must hold the lock.
+    *
+    * @return a trie holding every entry in this store, which is the trie itself if there are no mapped entries
+    */
+   private TicTacToeKnowledgeTrie getAllMovesToAvoid()
+   {
+      if (fMappedMovesToAvoid.size() == 0)
+      {
+         return fMovesToAvoid;
+      }
+
+      // The mapped entries are in numeric order, so put everything into one trie to get them in order
+      final TicTacToeKnowledgeTrie returnVal = new TicTacToeKnowledgeTrie(fMovesToAvoid);
+      for (int i = 0; i < fMappedMovesToAvoid.size(); i++)
+      {
+         returnVal.add(fMappedMovesToAvoid.get(i));
+      }
+      return returnVal;
+   }
+
+   /**
+    * Drop the entries that can no longer make a difference to how the application plays (see
+    * TicTacToeKnowledgeCompactor), then, for a store that is backed by the log files, rewrite the log files with the
+    * entries that are left.
+    * <p>
+    * Any mapped entries are taken into the trie, so that they can be compacted along with the rest; the binary
+    * knowledge file, if there is one, is rewritten with the log files.
+    *
+    * @return the number of entries dropped
+    */
+   public int compact()
+   {
+      final int returnVal;
+      fLock.writeLock().lock();
+      try
+      {
+         returnVal = compactEntries();
+      }
+      finally
+      {
+         fLock.writeLock().unlock();
+      }
+      compactLogFiles();
+      return returnVal;
+   }
+
+   /**
+    * Compact the entries held in memory, without writing anything out.  The caller must hold the write lock.
+    *
+    * @return the number of entries dropped
+    */
+   private int compactEntries()
+   {
+      final int sizeBefore = fMappedMovesToAvoid.size() + fMovesToAvoid.size();
+      fMovesToAvoid = TicTacToeKnowledgeCompactor.compact(getAllMovesToAvoid());
+      fMappedMovesToAvoid = TicTacToeMappedKnowledge.EMPTY;
+
+      // Don't compact by ourselves again until the store has doubled, so that the cost of compaction stays
+      // proportional to the number of additions
+      fCompactionThresholdEntries = Math.max(MIN_COMPACTION_THRESHOLD_ENTRIES, 2 * fMovesToAvoid.size());
+      return sizeBefore - fMovesToAvoid.size();
+   }
+
+
+   /**
+    * Rewrite the log files in full, dropping any lines that are no longer needed.  Does nothing for an in-memory store.
+    * <p>
+    * New entries are appended to the logs as they are added, so this is never needed to keep the logs up to date.
+    */
+   public void compactLogFiles()
+   {
+      if (fLog != null)
+      {
+         final long startNanos = fMetrics.startTimer();
+         fLog.rewrite(this::getSortedEntries);
+         fMetrics.recordKnowledgeSave(startNanos);
+      }
+   }
+
+   /**
+    * Rewrite the verbose log from every entry, waiting for it to be written.  Does nothing for an in-memory store.
+    * <p>
+    * The verbose log is written in the background, and may have fallen behind if entries were learned very quickly;
+    * this brings it up to date.
+    */
+   public void exportVerboseLog()
+   {
+      if (fLog != null)
+      {
+         final long startNanos = fMetrics.startTimer();
+         fLog.exportVerboseLog(this::getSortedEntries);
+         fMetrics.recordKnowledgeSave(startNanos);
+      }
+   }
+
+   /**
+    * Write every entry to the binary knowledge file, so that the next startup maps the file and only reads the lines
+    * appended to the concise log after this point.  Does nothing for an in-memory store.
+    */
+   public void writeKnowledgeFile()
+   {
+      if (fLog != null)
+      {
+         final long startNanos = fMetrics.startTimer();
+         fLog.writeKnowledgeFile(this::getSortedEntries);
+         fMetrics.recordKnowledgeSave(startNanos);
+      }
+   }
+
+   /**
+    * @param pCanonicalSequence a packed canonical sequence to add, without writing it to the logs
+    * @return the number of entries held once the sequence was added, or NOT_ADDED if it was already known
+    */
+   private int addEntry(final long pCanonicalSequence)
+   {
+      fLock.writeLock().lock();
+      try
+      {
+         if (fMappedMovesToAvoid.contains(pCanonicalSequence) || !fMovesToAvoid.add(pCanonicalSequence))
+         {
+            return NOT_ADDED;
+         }
+         if (fLog != null && fMappedMovesToAvoid.size() + fMovesToAvoid.size() >= fCompactionThresholdEntries)
+         {
+            compactEntries();
+         }
+         return fMappedMovesToAvoid.size() + fMovesToAvoid.size();
+      }
+      finally
+      {
+         fLock.writeLock().unlock();
+      }
+   }
+}
@@ -0,0 +1,184 @@
+package com.games.tictactoe;
+
+import java.util.Arrays;
+
+/**
+ * A prefix trie of canonical move sequences, with one level per move.  Sequences that share a prefix share the nodes
+ * for that prefix, and a node with no children marks a point past which nothing is known.
+ * <p>
+ * Nodes are numbered, with the root as node 0, and held in flat primitive arrays: each node has 9 child slots, one
+ * per cell number, holding the number of the child node (or 0 if there is no child, since the root is never a child).
+ * Looking up a child is a single array load.
+ * <p>
+ * This class is not thread-safe; callers that share a trie between threads must guard it themselves.
+ */
+final class TicTacToeKnowledgeTrie
+{
+
+
+   static final int ROOT = 0;
+   static final int NO_NODE = 0;
+
+   private static final int CHILD_SLOTS = TicTacToeLookupTables.MAX_CELLS;
+   private static final int INITIAL_NODE_CAPACITY = 64;
+
+   // Child node numbers, indexed by (node * CHILD_SLOTS + cellNumber - 1)
+   private int[] fChildren;
+
+   // True for nodes at which a sequence to avoid ends
+   private boolean[] fTerminal;
+
+   // The number of children of each node, so that empty subtrees can be skipped without looking at every slot
+   private byte[] fChildCounts;
+
+   private int fNodeCount;
+   private int fEntryCount;
+
+   TicTacToeKnowledgeTrie()
+   {
+      fChildren = new int[INITIAL_NODE_CAPACITY * CHILD_SLOTS];
+      fTerminal = new boolean[INITIAL_NODE_CAPACITY];
+      fChildCounts = new byte[INITIAL_NODE_CAPACITY];
+      fNodeCount = 1;
+   }
+
+   /**
+    * @param pOriginal the trie to copy
+    */
+   TicTacToeKnowledgeTrie(final TicTacToeKnowledgeTrie pOriginal)
+   {
+      fChildren = Arrays.copyOf(pOriginal.fChildren, pOriginal.fNodeCount * CHILD_SLOTS);
+      fTerminal = Arrays.copyOf(pOriginal.fTerminal, pOriginal.fNodeCount);
+      fChildCounts = Arrays.copyOf(pOriginal.fChildCounts, pOriginal.fNodeCount);
+      fNodeCount = pOriginal.fNodeCount;
+      fEntryCount = pOriginal.fEntryCount;
+   }
+
+   /**
+    * @param pNode       a node
+    * @param pCellNumber the 1-based cell number of the next move
+    * @return the child of the given node for the given move, or NO_NODE if there is none
+    */
+   int getChild(final int pNode, final int pCellNumber)
+   {
+      return fChildren[pNode * CHILD_SLOTS + pCellNumber - 1];
+   }
+
+   /**
+    * @param pNode a node
+    * @return true if a sequence to avoid ends at the given node
+    */
+   boolean isTerminal(final int pNode)
+   {
+      return fTerminal[pNode];
+   }
+
+   /**
+    * @param pNode a node
+    * @return true if the given node has at least one child
+    */
+   boolean hasChildren(final int pNode)
+   {
+      return fChildCounts[pNode] != 0;
+   }
+
+   /**
+    * @param pSequence a packed canonical sequence, holding at least one move
+    * @return true if the sequence was not already in the trie
+    */
+   boolean add(final long pSequence)
+   {
+      int node = ROOT;
+      final int length = TicTacToeMoveSequence.length(pSequence);
+      for (int i = 0; i < length; i++)
+      {
+         final int slot = node * CHILD_SLOTS + TicTacToeMoveSequence.moveAt(pSequence, i) - 1;
+         int child = fChildren[slot];
+         if (child == NO_NODE)
+         {
+            child = newNode();
+            fChildren[slot] = child;
+            fChildCounts[node]++;
+         }
+         node = child;
+      }
+      if (fTerminal[node])
+      {
+         return false;
+      }
+      fTerminal[node] = true;
+      fEntryCount++;
+      return true;
+   }
+
+   /**
+    * @return the number of sequences in the trie
+    */
+   int size()
+   {
+      return fEntryCount;
+   }
+
+   /**
+    * @return the number of nodes in the trie, including the root; every node number is less than this
+    */
+   int getNodeCount()
+   {
+      return fNodeCount;
+   }
+
+   /**
+    * @return a new array holding the packed sequences in the trie, in lexicographic order
+    */
+   long[] toArray()
+   {
+      final long[] returnVal = new long[fEntryCount];
+      collectEntries(ROOT, TicTacToeMoveSequence.EMPTY, returnVal, 0);
+      return returnVal;
+   }
+
+   /**
+    * Add the sequences under the given node to the given array, children in cell order, so they come out sorted
+    *
+    * @param pNode      the node to start from
+    * @param pSequence  the packed sequence that leads to the node
+    * @param pEntries   the array to fill in
+    * @param pNextIndex the next free index in the array
+    * @return the next free index in the array, once this subtree has been added
+    */
+   private int collectEntries(final int pNode, final long pSequence, final long[] pEntries, final int pNextIndex)
+   {
+      int nextIndex = pNextIndex;
+      if (fTerminal[pNode])
+      {
+         pEntries[nextIndex++] = pSequence;
+      }
+      if (fChildCounts[pNode] != 0)
+      {
+         for (int cellNumber = 1; cellNumber <= CHILD_SLOTS; cellNumber++)
+         {
+            final int child = getChild(pNode, cellNumber);
+            if (child != NO_NODE)
+            {
+               nextIndex = collectEntries(child, TicTacToeMoveSequence.append(pSequence, cellNumber), pEntries, nextIndex);
+            }
+         }
+      }
+      return nextIndex;
+   }
+
+   /**
+    * @return the number of a new, empty node
+    */
+   private int newNode()
+   {
+      if (fNodeCount == fTerminal.length)
+      {
+         final int newCapacity = fTerminal.length * 2;
+         fChildren = Arrays.copyOf(fChildren, newCapacity * CHILD_SLOTS);
+         fTerminal = Arrays.copyOf(fTerminal, newCapacity);
+         fChildCounts = Arrays.copyOf(fChildCounts, newCapacity);
+      }
+      return fNodeCount++;
+   }
+}
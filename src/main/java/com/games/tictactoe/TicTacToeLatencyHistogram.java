@@ -0,0 +1,153 @@
+package com.games.tictactoe;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of how long something took, cheap enough to record on every move.
+ * <p>
+ * Not every call need be timed: for work that takes less time than reading the clock twice, timing one call in a
+ * fixed number is enough to see the shape of the durations, at a fraction of the cost.  Every call is still counted
+ * (see recordCall()), so the number of calls is exact, and the number of durations recorded is kept apart from it.
+ * <p>
+ * Durations are counted in buckets by their power of two: bucket b holds the durations of at least 2^(b-1) and less
+ * than 2^b nanoseconds, with bucket 0 holding durations of zero.  Recording a duration is a few adds to striped
+ * counters (see LongAdder), so threads recording at the same time don't contend with each other, and nothing is
+ * allocated.  Percentiles are reported as the upper bound of the bucket they fall in, so they're accurate to within
+ * a factor of two, which is enough to see where the time goes.
+ * <p>
+ * Instances are safe to share between threads.  A reading taken while durations are being recorded may be slightly
+ * out of step with itself, such as a count that includes a duration that the total doesn't yet.
+ */
+final class TicTacToeLatencyHistogram
+{
+
+
+   // Bucket 39 starts at 2^38 nanoseconds, a little under 5 minutes; anything longer is counted there too
+   private static final int BUCKET_COUNT = 40;
+
+   private final LongAdder fCalls = new LongAdder();
+   private final LongAdder[] fBuckets = new LongAdder[BUCKET_COUNT];
+   private final LongAdder fTotalNanos = new LongAdder();
+   private final LongAccumulator fMaxNanos = new LongAccumulator(Math::max, 0L);
+
+   TicTacToeLatencyHistogram()
+   {
+      for (int bucket = 0; bucket < BUCKET_COUNT; bucket++)
+      {
+         fBuckets[bucket] = new LongAdder();
+      }
+   }
+
+   /**
+    * Count a call, whether it was timed or not
+    */
+   void recordCall()
+   {
+      fCalls.increment();
+   }
+
+   /**
+    * @param pNanos how long a timed call took, in nanoseconds; negative durations are counted as zero
+    */
+   void record(final long pNanos)
+   {
+      final long nanos = Math.max(pNanos, 0L);
+      fBuckets[Math.min(Long.SIZE - Long.numberOfLeadingZeros(nanos), BUCKET_COUNT - 1)].increment();
+      fTotalNanos.add(nanos);
+      fMaxNanos.accumulate(nanos);
+   }
+
+   /**
+    * @return the number of calls counted, timed or not
+    */
+   long getCount()
+   {
+      return fCalls.sum();
+   }
+
+   /**
+    * @return the number of durations recorded; no more than the number of calls, when only some are timed
+    */
+   long getSampleCount()
+   {
+      long returnVal = 0;
+      for (LongAdder bucket : fBuckets)
+      {
+         returnVal += bucket.sum();
+      }
+      return returnVal;
+   }
+
+   /**
+    * @return the sum of the durations recorded, in nanoseconds
+    */
+   long getTotalNanos()
+   {
+      return fTotalNanos.sum();
+   }
+
+   /**
+    * @return the mean of the durations recorded, in nanoseconds, or 0 if there are none
+    */
+   double getMeanNanos()
+   {
+      final long count = getSampleCount();
+      return count == 0 ? 0.0 : (double) getTotalNanos() / count;
+   }
+
+   /**
+    * @return the longest duration recorded, in nanoseconds, or 0 if there are none
+    */
+   long getMaxNanos()
+   {
+      return fMaxNanos.get();
+   }
+
+   /**
+    * @param pFraction the fraction of durations, from 0 to 1, such as 0.99 for the 99th percentile
+    * @return a duration, in nanoseconds, that at least the given fraction of the durations recorded are no longer than;
+    * never more than the longest duration recorded, and 0 if there are none
+    */
+   long getPercentileNanos(final double pFraction)
+   {
+      if (pFraction < 0.0 || pFraction > 1.0)
+      {
+         throw new IllegalArgumentException("fraction must be from 0 to 1. fraction=" + pFraction);
+      }
+
+      // The buckets are read once, so that the count and the walk through them agree
+      final long[] bucketCounts = new long[BUCKET_COUNT];
+      long count = 0;
+      for (int bucket = 0; bucket < BUCKET_COUNT; bucket++)
+      {
+         bucketCounts[bucket] = fBuckets[bucket].sum();
+         count += bucketCounts[bucket];
+      }
+      final long wanted = (long) Math.ceil(pFraction * count);
+      long seen = 0;
+      for (int bucket = 0; bucket < BUCKET_COUNT; bucket++)
+      {
+         seen += bucketCounts[bucket];
+         if (seen >= wanted && seen > 0)
+         {
+            return Math.min((1L << bucket) - 1, getMaxNanos());
+         }
+      }
+      return getMaxNanos();
+   }
+
+   /**
+    * Forget every call and duration recorded so far
+    */
+   void reset()
+   {
+      fCalls.reset();
+      for (LongAdder bucket : fBuckets)
+      {
+         bucket.reset();
+      }
+      fTotalNanos.reset();
+      fMaxNanos.reset();
+   }
+}
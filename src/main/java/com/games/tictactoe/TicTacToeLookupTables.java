@@ -0,0 +1,172 @@
+package com.games.tictactoe;
+
+import com.games.GameStatusEnum;
+
+/**
+ * Static tables, computed once per JVM, that answer questions about a TicTacToe position with a single array load.
+ * <p>
+ * Two ways of indexing a position are used:
+ * <p>
+ * - Occupancy: a 9-bit mask of the cells held by one player, with cell number n held in bit (n - 1)
+ * - Position index: a base-3 number with one digit per cell (0 = unselected, 1 = X, 2 = O), where cell number n
+ * is the digit of weight 3^(n - 1).  This gives every possible board a distinct index from 0 to 19682.
+ */
+final class TicTacToeLookupTables
+{
+
+
+   static final int MAX_CELLS = 9;
+
+   // The number of distinct 9-bit occupancy masks
+   static final int OCCUPANCY_COUNT = 1 << MAX_CELLS;
+
+   // The number of distinct position indexes: 3^9
+   static final int POSITION_COUNT = 19683;
+
+   // The digit used for each cell status in a position index
+   static final int DIGIT_UNSELECTED = 0;
+   static final int DIGIT_X = 1;
+   static final int DIGIT_O = 2;
+
+   /*
+      The 8 possible ways to win, each as a mask of three cells:
+
+         1 2 3
+         4 5 6
+         7 8 9
+    */
+   static final int[] WINNING_LINES = {
+         // three rows
+         0b000_000_111, 0b000_111_000, 0b111_000_000,
+         // three columns
+         0b001_001_001, 0b010_010_010, 0b100_100_100,
+         // two diagonals
+         0b100_010_001, 0b001_010_100
+   };
+
+   // Indexed by a 1-based cell number; the weight of that cell's digit in a position index
+   static final int[] POSITION_WEIGHTS = new int[MAX_CELLS + 1];
+
+   // Indexed by an occupancy mask; the position index of a board with only those cells, each holding an X
+   private static final int[] OCCUPANCY_POSITION_INDEX = new int[OCCUPANCY_COUNT];
+
+   // Indexed by a player's occupancy mask; true if that occupancy contains a winning line
+   private static final boolean[] WINNING_OCCUPANCY = new boolean[OCCUPANCY_COUNT];
+
+   // Indexed by a position index; the status of the game at that position
+   private static final GameStatusEnum[] POSITION_STATUS = new GameStatusEnum[POSITION_COUNT];
+
+   static
+   {
+      int weight = 1;
+      for (int cellNumber = 1; cellNumber <= MAX_CELLS; cellNumber++)
+      {
+         POSITION_WEIGHTS[cellNumber] = weight;
+         weight *= 3;
+      }
+
+      for (int occupancy = 0; occupancy < OCCUPANCY_COUNT; occupancy++)
+      {
+         for (int cellNumber = 1; cellNumber <= MAX_CELLS; cellNumber++)
+         {
+            if ((occupancy & (1 << (cellNumber - 1))) != 0)
+            {
+               OCCUPANCY_POSITION_INDEX[occupancy] += POSITION_WEIGHTS[cellNumber];
+            }
+         }
+         for (int winningLine : WINNING_LINES)
+         {
+            if ((occupancy & winningLine) == winningLine)
+            {
+               WINNING_OCCUPANCY[occupancy] = true;
+               break;
+            }
+         }
+      }
+
+      for (int positionIndex = 0; positionIndex < POSITION_COUNT; positionIndex++)
+      {
+         int xMask = 0;
+         int oMask = 0;
+         int remainingDigits = positionIndex;
+         for (int bit = 0; bit < MAX_CELLS; bit++)
+         {
+            final int digit = remainingDigits % 3;
+            remainingDigits /= 3;
+            if (digit == DIGIT_X)
+            {
+               xMask |= 1 << bit;
+            }
+            else if (digit == DIGIT_O)
+            {
+               oMask |= 1 << bit;
+            }
+         }
+
+         final GameStatusEnum status;
+         if (WINNING_OCCUPANCY[xMask] || WINNING_OCCUPANCY[oMask])
+         {
+            status = GameStatusEnum.WON;
+         }
+         else if ((xMask | oMask) == OCCUPANCY_COUNT - 1)
+         {
+            status = GameStatusEnum.TIE;
+         }
+         else
+         {
+            status = GameStatusEnum.ONGOING;
+         }
+         POSITION_STATUS[positionIndex] = status;
+      }
+   }
+
+   private TicTacToeLookupTables()
+   {
+      // static tables only
+   }
+
+   /**
+    * @param pOccupancy a 9-bit occupancy mask for one player
+    * @return true if the given occupancy contains a winning line
+    */
+   static boolean isWinningOccupancy(final int pOccupancy)
+   {
+      return WINNING_OCCUPANCY[pOccupancy];
+   }
+
+   /**
+    * @param pXMask the occupancy mask of the cells holding an X
+    * @param pOMask the occupancy mask of the cells holding an O; must not overlap pXMask
+    * @return the position index of the board holding those cells
+    */
+   static int getPositionIndex(final int pXMask, final int pOMask)
+   {
+      return OCCUPANCY_POSITION_INDEX[pXMask] + DIGIT_O * OCCUPANCY_POSITION_INDEX[pOMask];
+   }
+
+   /**
+    * @param pPositionIndex a position index, from 0 to 19682
+    * @return the status of the game at the given position: WON, TIE or ONGOING.  Will not return null
+    */
+   static GameStatusEnum getPositionStatus(final int pPositionIndex)
+   {
+      return POSITION_STATUS[pPositionIndex];
+   }
+
+   /**
+    * @param pCellStatus a cell status
+    * @return the digit used for the given status in a position index
+    */
+   static int getPositionDigit(final CellStatusEnum pCellStatus)
+   {
+      switch (pCellStatus)
+      {
+         case X_SELECTED:
+            return DIGIT_X;
+         case O_SELECTED:
+            return DIGIT_O;
+         default:
+            return DIGIT_UNSELECTED;
+      }
+   }
+}
@@ -4,30 +4,21 @@ package com.games.tictactoe;
 import com.games.GameStatusEnum;
 import com.games.GameStatusInfo;
 import com.games.IGameBoard;
+import com.games.IGameInputProvider;
 import com.games.IGameManager;
 import com.games.IGameMove;
+import com.games.IGameOpponent;
+import com.games.InputParsingHelper;
 import com.games.PlayerEnum;
 import com.games.RenderingHelper;
+import com.games.StreamGameInputProvider;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Random;
-import java.util.Scanner;
-import java.util.Set;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * An implementation of the GameManager contract.
@@ -47,12 +38,8 @@ public class TicTacToeManager
 {
 
 
-   // These file names are hard-coded here; in a real project, they'd probably be specified in some more
-   // flexible way (e.g., a properties file of some sort
-   private static final String FILE_NAME_VERBOSE = "tttVerbose.log";
-   private static final String FILE_NAME_CONCISE = "tttConcise.log";
-
    private static final int TOTAL_CELL_COUNT = 9;
+   private static final int FULL_BOARD_MASK = (1 << TOTAL_CELL_COUNT) - 1;
    private static final int BOARD_DIMENSION = 3;
 
    // Pithy phrases to render to the user in certain circumstances
@@ -65,8 +52,32 @@ public class TicTacToeManager
    private static final String[] DRAW_PHRASES = {"Looks like we're even-steven.", "Neck and neck!", "Shall we give it another shot?"};
 
 
-   // Set to hold the moves that Should Be Avoided
-   private Set<String> fMovesToAvoid;
+   // GameStatusInfo is immutable, so we keep one instance per player and status, rather than allocating one per move
+   private static final GameStatusInfo[][] STATUS_INFOS = new GameStatusInfo[PlayerEnum.values().length][GameStatusEnum.values().length];
+
+   static
+   {
+      for (PlayerEnum player : PlayerEnum.values())
+      {
+         for (GameStatusEnum status : GameStatusEnum.values())
+         {
+            STATUS_INFOS[player.ordinal()][status.ordinal()] = new GameStatusInfo(player, status);
+         }
+      }
+   }
+
+
+   // Store to hold the moves that Should Be Avoided; may still be loading (see getKnowledgeStore())
+   private final CompletableFuture<TicTacToeKnowledgeStore> fKnowledgeStore;
+
+   // Where the human's moves come from
+   private final IGameInputProvider fInputProvider;
+
+   // How the application chooses its moves
+   private final TicTacToeStrategyEnum fStrategy;
+
+   // Shared by every manager in the process
+   private final TicTacToeMetrics fMetrics = TicTacToeMetrics.getInstance();
 
    /**
     * Public constructor for this manager class.  At this point, there's no particular advantage to creating a
@@ -74,8 +85,66 @@ public class TicTacToeManager
     */
    public TicTacToeManager()
    {
-      // load up the old lost-games from a file
-      initializeMovesToAvoidSet();
+      this(StreamGameInputProvider.getConsole(), TicTacToeStrategyEnum.LEARNING);
+   }
+
+   /**
+    * The old lost-games are loaded from the log files on a background thread, so that the game can be introduced
+    * straight away, however much has been learned.  Nothing waits for them until they're first needed: the
+    * application's opening move is chosen at random, and the other strategies only need them to save a loss, so
+    * usually nothing waits at all.
+    *
+    * @param pInputProvider the source of the human's moves
+    * @param pStrategy      how the application chooses its moves
+    */
+   public TicTacToeManager(final IGameInputProvider pInputProvider, final TicTacToeStrategyEnum pStrategy)
+   {
+      this(loadInBackground(), pInputProvider, pStrategy);
+   }
+
+   /**
+    * @param pKnowledgeStore the store of moves to avoid.  May be shared with other managers, including managers
+    *                        used on other threads
+    */
+   public TicTacToeManager(final TicTacToeKnowledgeStore pKnowledgeStore)
+   {
+      this(pKnowledgeStore, StreamGameInputProvider.getConsole());
+   }
+
+   /**
+    * @param pKnowledgeStore the store of moves to avoid.  May be shared with other managers, including managers
+    *                        used on other threads
+    * @param pInputProvider  the source of the human's moves
+    */
+   public TicTacToeManager(final TicTacToeKnowledgeStore pKnowledgeStore, final IGameInputProvider pInputProvider)
+   {
+      this(pKnowledgeStore, pInputProvider, TicTacToeStrategyEnum.LEARNING);
+   }
+
+   /**
+    * @param pKnowledgeStore the store of moves to avoid.  May be shared with other managers, including managers
+    *                        used on other threads
+    * @param pInputProvider  the source of the human's moves
+    * @param pStrategy       how the application chooses its moves
+    */
+   public TicTacToeManager(final TicTacToeKnowledgeStore pKnowledgeStore, final IGameInputProvider pInputProvider,
+                           final TicTacToeStrategyEnum pStrategy)
+   {
+      this(CompletableFuture.completedFuture(Objects.requireNonNull(pKnowledgeStore, "knowledge store may not be null")),
+            pInputProvider, pStrategy);
+   }
+
+   /**
+    * @param pKnowledgeStore the store of moves to avoid, once it has been loaded
+    * @param pInputProvider  the source of the human's moves
+    * @param pStrategy       how the application chooses its moves
+    */
+   private TicTacToeManager(final CompletableFuture<TicTacToeKnowledgeStore> pKnowledgeStore,
+                            final IGameInputProvider pInputProvider, final TicTacToeStrategyEnum pStrategy)
+   {
+      fKnowledgeStore = pKnowledgeStore;
+      fInputProvider = Objects.requireNonNull(pInputProvider, "input provider may not be null");
+      fStrategy = Objects.requireNonNull(pStrategy, "strategy may not be null");
    }
 
    /**
@@ -93,7 +162,7 @@ public class TicTacToeManager
       final IGameMove gameMove;
       if (pPlayer == PlayerEnum.APPLICATION)
       {
-         gameMove = getGameMoveFromApplication(pGameBoard);
+         gameMove = getApplicationMove(pGameBoard, ThreadLocalRandom.current());
       }
       else
       {
@@ -105,15 +174,38 @@ public class TicTacToeManager
    }
 
 
+   @Override
+   public IGameMove getApplicationMove(final IGameBoard pGameBoard, final Random pRandom)
+   {
+      Objects.requireNonNull(pGameBoard, "game board may not be null");
+      Objects.requireNonNull(pRandom, "random may not be null");
+      return getGameMoveFromApplication(getTttBoard(pGameBoard), pRandom);
+   }
+
    /**
-    * Depending on how the opponent played, it may be that all the remaining paths have already been shown to
-    * be all losers.  In this case, the application will quit.
+    * When learning, depending on how the opponent played, it may be that all the remaining paths have already been
+    * shown to be all losers.  In this case, the application will quit.  The other strategies play perfectly, and never
+    * need to quit.  Every opening cell ties with perfect play, so all of the strategies open in a random cell.
     *
-    * @param pGameBoard
+    * @param pTttBoard the board to move on
+    * @param pRandom  the source of the application's random choices
     * @return a move made by the application
     */
+   IGameMove getGameMoveFromApplication(final TicTacToeBoard pTttBoard, final Random pRandom)
+   {
+      final long startNanos = fMetrics.startMoveDecisionTimer();
+      final IGameMove returnVal = chooseGameMoveFromApplication(pTttBoard, pRandom);
+      fMetrics.recordMoveDecision(startNanos);
+      return returnVal;
+   }
+
+   /**
+    * @param pTttBoard the board to move on
+    * @param pRandom   the source of the application's random choices
+    * @return a move made by the application, as described for getGameMoveFromApplication()
+    */
    @SuppressWarnings("JavaDoc")
-   private IGameMove getGameMoveFromApplication(final IGameBoard pGameBoard)
+   private IGameMove chooseGameMoveFromApplication(final TicTacToeBoard pTttBoard, final Random pRandom)
    {
       /*
       Assumptions
@@ -122,42 +214,44 @@ public class TicTacToeManager
         Opening cells are: NW corner (cell 1), N side (cell 2), and Center (cell 5)
 
        */
-      final TicTacToeBoard tttBoard = getTttBoard(pGameBoard);
-
-      boolean isNewBoard = tttBoard.getCellsOfGivenStatus(CellStatusEnum.UNSELECTED).size() == TOTAL_CELL_COUNT;
+      final int emptyCells = pTttBoard.getEmptyMask();
+      boolean isNewBoard = emptyCells == FULL_BOARD_MASK;
       final CellStatusEnum machineSelection = CellStatusEnum.X_SELECTED;
       final IGameMove returnVal;
       if (isNewBoard)
       {
-         int initialCellSelection = getInitialCellApplicationMove();
-         returnVal = new TicTacToeMove(initialCellSelection, CellStatusEnum.X_SELECTED);
+         int initialCellSelection = getInitialCellApplicationMove(pRandom);
+         returnVal = TicTacToeMove.of(initialCellSelection, CellStatusEnum.X_SELECTED);
+      }
+      else if (fStrategy == TicTacToeStrategyEnum.SOLVER)
+      {
+         // Every position has its best move worked out in advance, so this is a single lookup
+         returnVal = TicTacToeMove.of(TicTacToeSolver.getBestCell(pTttBoard.getPositionIndex()), machineSelection);
+      }
+      else if (fStrategy == TicTacToeStrategyEnum.OPENING_BOOK)
+      {
+         returnVal = TicTacToeMove.of(TicTacToeOpeningBook.getInstance().getBestCell(pTttBoard.getXMask(),
+               pTttBoard.getOMask()), machineSelection);
       }
       else
       {
 
-         // Look for an acceptable next move
-         final List<Integer> emptyCells = tttBoard.getCellsOfGivenStatus(CellStatusEnum.UNSELECTED);
-         Optional<Integer> maybeAcceptedMove = Optional.empty();
-         for (Integer possibleNewCell : emptyCells)
-         {
-            Optional<Integer> optionalCell = Optional.of(possibleNewCell);
-            final String proposedMoveSet = getMoveSummaryConcise(tttBoard.getMoveHistory(), optionalCell);
-            boolean isFoundInBadList = getMovesToAvoidSet().contains(proposedMoveSet);
-            if (!isFoundInBadList)
-            {
-               maybeAcceptedMove = Optional.of(possibleNewCell);
-               break;
-            }
-         }
+         // Look for an acceptable next move: the lowest-numbered empty cell that is not in the bad list.  The store
+         // checks every candidate in one walk of its trie, so this neither boxes nor allocates
+         final long movesSoFar = pTttBoard.getMoveSequence();
+         final int cellsToAvoid = getKnowledgeStore().getCellsToAvoid(movesSoFar, emptyCells);
+         fMetrics.recordAvoidLookup(cellsToAvoid);
+         final int acceptableCells = emptyCells & ~cellsToAvoid;
 
-         if (maybeAcceptedMove.isPresent())
+         if (acceptableCells != 0)
          {
-            // Give up the game - no acceptable moves found
-            returnVal = new TicTacToeMove(maybeAcceptedMove.get(), machineSelection);
+            final int acceptedCell = Integer.numberOfTrailingZeros(acceptableCells) + 1;
+            returnVal = TicTacToeMove.of(acceptedCell, machineSelection);
          }
          else
          {
-            returnVal = new TicTacToeMove(true);
+            // Give up the game - no acceptable moves found
+            returnVal = TicTacToeMove.quit();
          }
       }
       return returnVal;
@@ -165,30 +259,10 @@ public class TicTacToeManager
 
 
    /**
-    * @return a set with Moves to avoid.  Will never return null. The values of the set are strings of concatenated single digits,
-    * each digit representing a single move by a player on a particular TicTacToe cell.
-    */
-   private Set<String> getMovesToAvoidSet()
-   {
-      if (fMovesToAvoid == null)
-      {
-         // it should never happen that fMovesToAvoid is null here, since we initialize it in the constructor
-         // Still, as a matter of good form, we'll check for null here.
-         initializeMovesToAvoidSet();
-      }
-      return fMovesToAvoid;
-   }
-
-   private void initializeMovesToAvoidSet()
-   {
-      fMovesToAvoid = getMovesToAvoidSetFromConciseLog();
-   }
-
-
-   /**
+    * @param pRandom the source of the random choice
     * @return a cell number
     */
-   private int getInitialCellApplicationMove()
+   private int getInitialCellApplicationMove(final Random pRandom)
    {
       /*
          There are, essentially, only three unique cells: corner, side, and center.  As such, we could
@@ -200,12 +274,12 @@ public class TicTacToeManager
           the movesToAvoid that we calculate (since we're getting all rotational and mirror variants), we'll go
           ahead and start in any cell.
        */
-      return getRandomInt(TOTAL_CELL_COUNT);
+      return pRandom.nextInt(TOTAL_CELL_COUNT) + 1;
    }
 
    private int getRandomInt(final int pRandomRange)
    {
-      return new Random().nextInt(pRandomRange) + 1;
+      return ThreadLocalRandom.current().nextInt(pRandomRange) + 1;
    }
 
    /**
@@ -218,21 +292,30 @@ public class TicTacToeManager
       IGameMove returnValue = null;
       int cellNumber;
 
+      // Reused for each attempt, to hold the row and column as they're parsed
+      final int[] numbers = new int[2];
 
-      final Scanner scanner = new Scanner(System.in);
-      RenderingHelper.renderOutputLine("");
-      RenderingHelper.renderOutputLine("Your move!\n");
+      final StringBuilder frame = RenderingHelper.startFrame();
+      RenderingHelper.appendOutputLine(frame, "");
+      RenderingHelper.appendOutputLine(frame, "Your move!\n");
+      RenderingHelper.renderFrame(frame);
       while (returnValue == null)
       {
          boolean isNeedsExtraInstruction = false;
          RenderingHelper.renderOutputLine("Please enter the row and column of your next move, or 'q' to quit: ");
-         final String inputLine = scanner.nextLine(); // does not appear that this will ever return null
+         final String inputLine = fInputProvider.readLine();
          RenderingHelper.renderOutputLine("");
+         if (inputLine == null)
+         {
+            // The input has run out, such as at the end of a replayed script, so there's nobody left to play
+            returnValue = TicTacToeMove.quit();
+            break;
+         }
          //RenderingHelper.renderLoggingLine("getNextMove: input=" + inputLine);
          final boolean isQuit = "q".equalsIgnoreCase(inputLine.trim());
          if (isQuit)
          {
-            returnValue = new TicTacToeMove(true);
+            returnValue = TicTacToeMove.quit();
             break;
          }
          else
@@ -240,65 +323,55 @@ public class TicTacToeManager
             // We'll actually accept a value separated by a commas or by a space, since 13% of our users will
             // use a comma anyways, despite our clear instructions.  There's no good reason to slap them on the wrist
             // for something so natural and acceptable.  Double check this with our UI folks, in case they disagree.
-            String[] parts = inputLine.split(",");
-            if (parts.length < 2)
+            final int numberCount = InputParsingHelper.parseNumbers(inputLine, 0, numbers);
+            if (numberCount < 0)
+            {
+               RenderingHelper.renderOutputLine("Sorry, that doesn't seem to be a valid value\n");
+               isNeedsExtraInstruction = true;
+            }
+            else if (numberCount < 2)
+            {
+               RenderingHelper.renderOutputLine("It doesn't seem that you've entered two numbers separated by a space.");
+               isNeedsExtraInstruction = true;
+            }
+            else
             {
-               //RenderingHelper.renderLoggingLine("getNextMove: split by comma, parts.length=" + parts.length);
-               parts = inputLine.split(" ");
-               if (parts.length < 2)
+               int row = numbers[0];
+               int column = numbers[1];
+               if (row < 1 || row > BOARD_DIMENSION)
                {
-                  //RenderingHelper.renderLoggingLine("getNextMove: split by space, parts.length=" + parts.length);
-                  RenderingHelper.renderOutputLine("It doesn't seem that you've entered two numbers separated by a space.");
+                  RenderingHelper.renderOutputLine("Sorry, " + row + "  is not a valid row number.");
                   isNeedsExtraInstruction = true;
                }
-            }
-
-            if (parts.length >= 2)
-            {
-               try
+               else if (column < 1 || column > BOARD_DIMENSION)
                {
-                  //RenderingHelper.renderLoggingLine("getNextMove: parts[0]=" + parts[0] + ".");
-                  //RenderingHelper.renderLoggingLine("getNextMove: parts[1]=" + parts[1]+ ".");
-                  int row = Integer.valueOf(parts[0].trim());
-                  int column = Integer.valueOf(parts[1].trim());
-                  if (row < 1 || row > BOARD_DIMENSION)
-                  {
-                     RenderingHelper.renderOutputLine("Sorry, " + row + "  is not a valid row number.");
-                     isNeedsExtraInstruction = true;
-                  }
-                  else if (column < 1 || column > BOARD_DIMENSION)
+                  RenderingHelper.renderOutputLine("Sorry, " + column + "  is not a valid column number.");
+                  isNeedsExtraInstruction = true;
+               }
+               else
+               {
+                  final TicTacToeBoard tttBoard = getTttBoard(pGameBoard);
+                  cellNumber = getCellNumber(row, column);
+                  if (tttBoard.getCellStatus(cellNumber) != CellStatusEnum.UNSELECTED)
                   {
-                     RenderingHelper.renderOutputLine("Sorry, " + column + "  is not a valid column number.");
-                     isNeedsExtraInstruction = true;
+                     RenderingHelper.renderOutputLine("Sorry, that spot's already taken - you'll have to select another one.");
                   }
                   else
                   {
-                     final TicTacToeBoard tttBoard = getTttBoard(pGameBoard);
-                     cellNumber = getCellNumber(row, column);
-                     if (tttBoard.getCellStatus(cellNumber) != CellStatusEnum.UNSELECTED)
-                     {
-                        RenderingHelper.renderOutputLine("Sorry, that spot's already taken - you'll have to select another one.");
-                     }
-                     else
-                     {
-                        returnValue = new TicTacToeMove(cellNumber, CellStatusEnum.O_SELECTED);
-                     }
+                     returnValue = TicTacToeMove.of(cellNumber, CellStatusEnum.O_SELECTED);
                   }
                }
-               catch (Exception e)
-               {
-                  RenderingHelper.renderOutputLine("Sorry, that doesn't seem to be a valid value\n");
-                  isNeedsExtraInstruction = true;
-               }
             }
 
             // If we don't have something yet, give some more help to the user
             if (isNeedsExtraInstruction)
             {
-               RenderingHelper.renderOutputLine("Please enter two numbers, each from 1 to 3, separated by a space.\n");
-               RenderingHelper.renderOutputLine("The first number is for the row, and the second number is for the column.  \n");
-               RenderingHelper.renderOutputLine("For example, to specify the center spot on the board:\n");
-               RenderingHelper.renderOutputLine("  2 2\n");
+               final StringBuilder instructionFrame = RenderingHelper.startFrame();
+               RenderingHelper.appendOutputLine(instructionFrame, "Please enter two numbers, each from 1 to 3, separated by a space.\n");
+               RenderingHelper.appendOutputLine(instructionFrame, "The first number is for the row, and the second number is for the column.  \n");
+               RenderingHelper.appendOutputLine(instructionFrame, "For example, to specify the center spot on the board:\n");
+               RenderingHelper.appendOutputLine(instructionFrame, "  2 2\n");
+               RenderingHelper.renderFrame(instructionFrame);
             }
          }
       }
@@ -310,8 +383,7 @@ public class TicTacToeManager
    @Override
    public IGameBoard getNewGameBoard()
    {
-      // If performance or memory becomes an issue, we could simply reset the existing game board, rather than create
-      // a new object
+      // Callers that play many games should reset() one board between games, rather than asking for a new one each time
       return new TicTacToeBoard();
    }
 
@@ -332,26 +404,12 @@ public class TicTacToeManager
       Objects.requireNonNull(pGameBoard, "game board may not be null");
       Objects.requireNonNull(pMostRecentPlayer, "player may not be null");
 
+      // The whole position is resolved to WON, TIE or ONGOING with a single table lookup
+      final long startNanos = fMetrics.startStatusEvaluationTimer();
       final TicTacToeBoard tttBoard = getTttBoard(pGameBoard);
-      GameStatusEnum gameStatus;
-      if (tttBoard.isGameWon(CellStatusEnum.O_SELECTED))
-      {
-         gameStatus = GameStatusEnum.WON;
-      }
-      else if (tttBoard.isGameWon(CellStatusEnum.X_SELECTED))
-      {
-         gameStatus = GameStatusEnum.WON;
-      }
-      else if (tttBoard.getCellsOfGivenStatus(CellStatusEnum.UNSELECTED).size() == 0)
-      {
-         gameStatus = GameStatusEnum.TIE;
-      }
-      else
-      {
-         gameStatus = GameStatusEnum.ONGOING;
-      }
-      //
-      return new GameStatusInfo(pMostRecentPlayer, gameStatus);
+      final GameStatusEnum gameStatus = tttBoard.getGameStatus();
+      fMetrics.recordStatusEvaluation(startNanos);
+      return STATUS_INFOS[pMostRecentPlayer.ordinal()][gameStatus.ordinal()];
    }
 
 
@@ -360,6 +418,10 @@ public class TicTacToeManager
    {
       Objects.requireNonNull(pGameBoard, "game board may not be null");
       Objects.requireNonNull("GameStatusInfo may not be null");
+      if (RenderingHelper.isQuiet())
+      {
+         return;
+      }
 
       GameStatusEnum gameStatusEnum = pGameStatusInfo.getGameStatus();
       Objects.requireNonNull(gameStatusEnum, "gameStatusEnum may not be null");
@@ -410,10 +472,12 @@ public class TicTacToeManager
       }
 
 
-      RenderingHelper.renderOutputLine(outputLine);
-      RenderingHelper.renderOutputLine("");
-      RenderingHelper.renderOutputLine("Here's how the game ended: ");
-      renderBoard(pGameBoard);
+      final StringBuilder frame = RenderingHelper.startFrame();
+      RenderingHelper.appendOutputLine(frame, outputLine);
+      RenderingHelper.appendOutputLine(frame, "");
+      RenderingHelper.appendOutputLine(frame, "Here's how the game ended: ");
+      appendBoard(frame, getTttBoard(pGameBoard));
+      RenderingHelper.renderFrame(frame);
    }
 
 
@@ -421,33 +485,48 @@ public class TicTacToeManager
    public void renderBoard(final IGameBoard pGameBoard)
    {
       Objects.requireNonNull(pGameBoard, "game board may not be null");
+      if (RenderingHelper.isQuiet())
+      {
+         return;
+      }
 
-      final TicTacToeBoard tttBoard = getTttBoard(pGameBoard);
+      // The whole board is built up first, and then rendered with a single write
+      final StringBuilder frame = RenderingHelper.startFrame();
+      appendBoard(frame, getTttBoard(pGameBoard));
+      RenderingHelper.renderFrame(frame);
+   }
+
+   /**
+    * @param pFrame    the frame to add the board to
+    * @param pTttBoard the board to add
+    */
+   private static void appendBoard(final StringBuilder pFrame, final TicTacToeBoard pTttBoard)
+   {
       // In a real project, I'd probably use apache StringUtils.repeat() to do this
       final String horizontalLine = "------------";
       final String indent = "    ";
-      RenderingHelper.renderOutputLine("\n");
+      RenderingHelper.appendOutputLine(pFrame, "\n");
       for (int cellNumber = 1; cellNumber <= 9; cellNumber++)
       {
 
          final boolean isNeedsLine = cellNumber == 4 || cellNumber == 7;
          if (isNeedsLine)
          {
-            RenderingHelper.renderOutputLine("");
-            RenderingHelper.renderOutputLine(horizontalLine);
+            RenderingHelper.appendOutputLine(pFrame, "");
+            RenderingHelper.appendOutputLine(pFrame, horizontalLine);
          }
          final boolean isNewLineOfBoard = (cellNumber - 1) % 3 == 0;
          if (isNewLineOfBoard)
          {
-            RenderingHelper.renderOutputFragment(indent);
+            pFrame.append(indent);
          }
          else
          {
-            RenderingHelper.renderOutputFragment("|");
+            pFrame.append('|');
          }
-         RenderingHelper.renderOutputFragment(" " + tttBoard.getCellStatus(cellNumber).getRenderingValue() + " ");
+         pFrame.append(' ').append(pTttBoard.getCellStatus(cellNumber).getRenderingValue()).append(' ');
       }
-      RenderingHelper.renderOutputLine("\n");
+      RenderingHelper.appendOutputLine(pFrame, "\n");
    }
 
    private TicTacToeBoard getTttBoard(final IGameBoard pGameBoard)
@@ -463,15 +542,17 @@ public class TicTacToeManager
    @Override
    public void introduceGameAndRules()
    {
-      RenderingHelper.renderOutputLine("");
-      RenderingHelper.renderOutputLine("Welcome to TicTacToe.  You'll be playing the computer (me!) today, so... good luck!");
-      RenderingHelper.renderOutputLine("");
-      RenderingHelper.renderOutputLine("When entering your moves, please enter two numbers separated by a space, representing the row and column of your selection. ");
-      RenderingHelper.renderOutputLine("We're playing on a standard TicTacToe board, so your row and column numbers must be from 1 to 3.");
-      RenderingHelper.renderOutputLine("For example, to specify the center space, enter:   2 2");
-      RenderingHelper.renderOutputLine("");
-      RenderingHelper.renderOutputLine("I'll be going first - I'm 'X', and you'll be 'O'.");
-      RenderingHelper.renderOutputLine("");
+      final StringBuilder frame = RenderingHelper.startFrame();
+      RenderingHelper.appendOutputLine(frame, "");
+      RenderingHelper.appendOutputLine(frame, "Welcome to TicTacToe.  You'll be playing the computer (me!) today, so... good luck!");
+      RenderingHelper.appendOutputLine(frame, "");
+      RenderingHelper.appendOutputLine(frame, "When entering your moves, please enter two numbers separated by a space, representing the row and column of your selection. ");
+      RenderingHelper.appendOutputLine(frame, "We're playing on a standard TicTacToe board, so your row and column numbers must be from 1 to 3.");
+      RenderingHelper.appendOutputLine(frame, "For example, to specify the center space, enter:   2 2");
+      RenderingHelper.appendOutputLine(frame, "");
+      RenderingHelper.appendOutputLine(frame, "I'll be going first - I'm 'X', and you'll be 'O'.");
+      RenderingHelper.appendOutputLine(frame, "");
+      RenderingHelper.renderFrame(frame);
    }
 
    /**
@@ -485,238 +566,122 @@ public class TicTacToeManager
 
       Objects.requireNonNull(pGameBoard, "game board may not be null");
       Objects.requireNonNull(pGameStatusInfo, "GameStatusInfo may not be null");
-      final PlayerEnum finalPlayer = pGameStatusInfo.getFinalPlayer();
-      Objects.requireNonNull(finalPlayer, "the final play may not be null here");
-      final GameStatusEnum gameStatus = pGameStatusInfo.getGameStatus();
-      Objects.requireNonNull(gameStatus, "the game status may not be null");
+      Objects.requireNonNull(pGameStatusInfo.getFinalPlayer(), "the final play may not be null here");
+      Objects.requireNonNull(pGameStatusInfo.getGameStatus(), "the game status may not be null");
 
-      final boolean isApplicationLost = finalPlayer == PlayerEnum.APPLICATION && (gameStatus == GameStatusEnum.QUIT);
-      final boolean isHumanWon = finalPlayer == PlayerEnum.HUMAN && (gameStatus == GameStatusEnum.WON);
-      boolean isRecordInfo = isApplicationLost || isHumanWon;
-      if (isRecordInfo)
+      fMetrics.recordGameOver(pGameStatusInfo);
+      final OptionalLong movesToAvoid = getMoveToRecord(pGameBoard, pGameStatusInfo);
+
+      // Add the moves to the store, which appends them to the log files if they're new
+      if (movesToAvoid.isPresent())
       {
-         final TicTacToeBoard tttBoard = getTttBoard(pGameBoard);
-         Optional<Integer> nullCell = Optional.empty();
-
-         final String moveSummary = getMoveSummaryConcise(tttBoard.getMoveHistory(), nullCell);
-         // Remove the last move, which would've been from the Human, since that won't come into play when
-         // we're actually using the data to decide what move to make (and what moves to avoid)
-         final String moveSummaryWithoutFinalHumanMove = moveSummary.substring(0, moveSummary.length() - 1);
-
-         /*
-            When writing out a loss, write out all the possible combinations - 4 possible rotations, and flips
-            on 4 axes.  That way, we'll avoid playing essentially similar games
-         */
-         final Set<String> moveSummaryVariants = getMoveSummaryVariants(moveSummaryWithoutFinalHumanMove);
-
-         // Add the variants to the current set, and write them out to the file
-         final Set<String> movesToAvoid = getMovesToAvoidSet();
-         movesToAvoid.addAll(moveSummaryVariants);
-
-         // Note: for now, we write out the entire file; it's quick to do so, since we never go beyond a few hundred
-         // lines.  If performance became an issue, we could change this to append new lines rather than write the entire
-         // file.
-         writeLogFiles(movesToAvoid);
+         getKnowledgeStore().add(movesToAvoid.getAsLong());
       }
    }
 
    /**
-    * Get the corresponding rotational summaries, and the corresponding mirror summaries (reflected on various axes),
-    * as well as the original
-    *
-    * @param pMoveSummary the original moveSummary
-    * @return all variants of the moveSummary, including itself.
+    * @param pGameBoard      the game board
+    * @param pGameStatusInfo the final status of the game
+    * @return the packed move sequence to avoid in the future, if the application lost the game.  Will not return null;
+    * returns an empty OptionalLong if there is nothing to record
     */
-   private Set<String> getMoveSummaryVariants(final String pMoveSummary)
+   OptionalLong getMoveToRecord(final IGameBoard pGameBoard, final GameStatusInfo pGameStatusInfo)
    {
-      Set<String> returnVal = new HashSet<>();
-      returnVal.add(pMoveSummary);
+      final PlayerEnum finalPlayer = pGameStatusInfo.getFinalPlayer();
+      final GameStatusEnum gameStatus = pGameStatusInfo.getGameStatus();
 
-      /*
-         1 2 3
-         4 5 6
-         7 8 9
-       */
+      final boolean isApplicationLost = finalPlayer == PlayerEnum.APPLICATION && (gameStatus == GameStatusEnum.QUIT);
+      final boolean isHumanWon = finalPlayer == PlayerEnum.HUMAN && (gameStatus == GameStatusEnum.WON);
+      boolean isRecordInfo = isApplicationLost || isHumanWon;
+      if (!isRecordInfo)
+      {
+         return OptionalLong.empty();
+      }
 
-      // Rotate
-      int[] transform90 = {3, 6, 9, 2, 5, 8, 1, 4, 7};
-      returnVal.add(transformString(pMoveSummary, transform90));
-      int[] transform180 = {9, 8, 7, 6, 5, 4, 3, 2, 1};
-      returnVal.add(transformString(pMoveSummary, transform180));
-      int[] transform270 = {7, 4, 1, 8, 5, 2, 9, 6, 3};
-      returnVal.add(transformString(pMoveSummary, transform270));
-
-      // Flip on an axis
-      int[] flipHorizontal = {7, 8, 9, 4, 5, 6, 1, 2, 3};
-      returnVal.add(transformString(pMoveSummary, flipHorizontal));
-      int[] flipVertical = {3, 2, 1, 6, 5, 4, 9, 8, 7};
-      returnVal.add(transformString(pMoveSummary, flipVertical));
-      int[] flipForwardDiagonal = {9, 6, 3, 8, 5, 2, 7, 4, 1};
-      returnVal.add(transformString(pMoveSummary, flipForwardDiagonal));
-      int[] flipBackwardsDiagonal = {1, 4, 7, 2, 5, 8, 3, 6, 9};
-      returnVal.add(transformString(pMoveSummary, flipBackwardsDiagonal));
+      final long moveSummary = getTttBoard(pGameBoard).getMoveSequence();
+      // Remove the last move, which would've been from the Human, since that won't come into play when
+      // we're actually using the data to decide what move to make (and what moves to avoid)
+      final long moveSummaryWithoutFinalHumanMove = TicTacToeMoveSequence.withoutLastMove(moveSummary);
 
-      return returnVal;
+      /*
+         The store folds together all the possible combinations - 4 possible rotations, and flips on 4 axes - so
+         we'll avoid playing essentially similar games, while only recording one of them
+      */
+      return OptionalLong.of(moveSummaryWithoutFinalHumanMove);
    }
 
    /**
-    * Transform the given String, according to the given array.
+    * Waits for the store to finish loading, if it's still being loaded in the background.  Once it has loaded, this
+    * is a single read.
     *
-    * @param pMoveSummary    a String summary of the moves, in the form "3578"
-    * @param pTransformArray an array that directs how to transform this summary
-    * @return a transformed array
+    * @return the store of moves to avoid used by this manager
     */
-   private String transformString(final String pMoveSummary, final int[] pTransformArray)
+   TicTacToeKnowledgeStore getKnowledgeStore()
    {
-      List<Integer> tempList = new ArrayList<>();
-      for (int i = 0; i < pMoveSummary.length(); i++)
+      try
       {
-         int oneBasedDigit = Integer.valueOf(pMoveSummary.substring(i, i + 1));
-         final int zeroBasedArrayPointer = oneBasedDigit - 1;
-         final int result = pTransformArray[(zeroBasedArrayPointer)];
-         tempList.add(result);
+         return fKnowledgeStore.join();
       }
-      return getStringFromList(tempList);
-   }
-
-
-   /**
-    * Write the concise move summaries to a a log.  Overwrites the existing log files.
-    * <p>
-    * The concise summary of moves is what we really use; we write out the concise summary to the concise file, in order
-    * to read it back in again the next time we start up.
-    * <p>
-    * The verbose file is never read back in by this current application; it's written out to satisfy the requirements
-    * (perhaps some other application needs the data in that format?)
-    *
-    * @param pMoveSummaries
-    */
-   private void writeLogFiles(Set<String> pMoveSummaries)
-   {
-      try (
-            Writer conciseWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FILE_NAME_CONCISE), "utf-8"));
-            Writer verboseWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FILE_NAME_VERBOSE), "utf-8")))
+      catch (CompletionException e)
       {
-         for (String moveSummary : pMoveSummaries)
+         // Fail the same way that loading the store up front would have
+         final Throwable cause = e.getCause();
+         if (cause instanceof RuntimeException)
          {
-            // Write out verbose entry to verbose file
-            final String verboseRepresentation = getVerboseRepresentation(moveSummary);
-            verboseWriter.write(verboseRepresentation);
-            verboseWriter.write("\n");
-
-            // Write out concise entry to concise file
-            conciseWriter.write(moveSummary);
-            conciseWriter.write("\n");
+            throw (RuntimeException) cause;
          }
-      }
-      catch (IOException e)
-      {
-         RenderingHelper.renderLoggingLine("writeLogFiles: problem writing. e=" + e);
-      }
-   }
-
-   private String getVerboseRepresentation(final String moveSummary)
-   {
-      final StringBuilder sb = new StringBuilder();
-      for (int i = 0; i < moveSummary.length(); i++)
-      {
-         int oneBasedDigit = Integer.valueOf(moveSummary.substring(i, i + 1));
-         int row = getRow(oneBasedDigit);
-         int column = getColumn(oneBasedDigit);
-         //  line like this: (2,2)-(2,3)-(1,1)-(3,3)-(3,1)-(3,2)
-         final String verboseSummary = "(" + row + "," + column + ")";
-         if (sb.length() > 0)
+         if (cause instanceof Error)
          {
-            sb.append("-");
+            throw (Error) cause;
          }
-         sb.append(verboseSummary);
+         throw e;
       }
-      return sb.toString();
-   }
-
-
-   /**
-    * @param pCellNumber
-    * @return the row that corresponds to the given cell number
-    */
-   private int getRow(int pCellNumber)
-   {
-      return (pCellNumber / 3) + 1;
-   }
-
-   /**
-    * @param pCellNumber
-    * @return the column that corresponds to the given cell number
-    */
-   private int getColumn(int pCellNumber)
-   {
-      return pCellNumber % 3;
    }
 
-
    /**
-    * @param pMoves                   the moves so far
-    * @param pPossibleAdditionalValue Possible (optional) value
-    * @return a String of digits, in order
+    * @return a store that will hold the rows in the log files, once they've been loaded on a new background thread
     */
-   private String getMoveSummaryConcise(final List<? extends IGameMove> pMoves,
-                                        Optional<Integer> pPossibleAdditionalValue)
+   private static CompletableFuture<TicTacToeKnowledgeStore> loadInBackground()
    {
-      //RenderingHelper.renderLoggingLine("getMoveSummary: try with additionalValue=" + pPossibleAdditionalValue);
-      List<Integer> cellList = pMoves.stream().map(gm -> ((TicTacToeMove) gm).getCellNumber())
-/*
-            .peek(num -> System.out.println("got in list num=" + num))
-*/
-            .collect(Collectors.toList());
-
-      pPossibleAdditionalValue.ifPresent(cellList::add);
+      final CompletableFuture<TicTacToeKnowledgeStore> returnVal = new CompletableFuture<>();
+      final Thread loaderThread = new Thread(() ->
+      {
+         try
+         {
+            returnVal.complete(TicTacToeKnowledgeStore.loadFromLogFiles());
+         }
+         catch (RuntimeException | Error e)
+         {
+            returnVal.completeExceptionally(e);
+         }
+      }, "ttt-knowledge-load");
 
-      return getStringFromList(cellList);
+      // Loading only reads the files, so there's nothing to finish if the application exits first
+      loaderThread.setDaemon(true);
+      loaderThread.start();
+      return returnVal;
    }
 
-
-   /**
-    * Concatenate the given integers in a String
-    *
-    * @param pCellList
-    * @return the String built from the given integers
-    */
-   private String getStringFromList(final List<Integer> pCellList)
+   @Override
+   public int getKnowledgeSize()
    {
-      StringBuilder sb = new StringBuilder();
-      pCellList.forEach(sb::append);
-      return sb.toString();
+      return getKnowledgeStore().size();
    }
 
-   /**
-    * @return the rows in the concise log, each as a separate String in the returned Set
-    */
-   private Set<String> getMovesToAvoidSetFromConciseLog()
+   @Override
+   public IGameOpponent getScriptedOpponent(final String pOpponentName)
    {
-      Set<String> returnVal = new TreeSet<>();
-      File conciseFile = new File(FILE_NAME_CONCISE);
-      boolean isFileExists = conciseFile.exists();
-      if (isFileExists)
+      Objects.requireNonNull(pOpponentName, "opponent name may not be null");
+      for (TicTacToeOpponentEnum opponent : TicTacToeOpponentEnum.values())
       {
-         try (
-               final FileInputStream in = new FileInputStream(FILE_NAME_CONCISE);
-               BufferedReader br = new BufferedReader(new InputStreamReader(in, "utf-8")))
+         if (opponent.name().equalsIgnoreCase(pOpponentName.trim()))
          {
-            String thisLine;
-            while ((thisLine = br.readLine()) != null)
-            {
-               returnVal.add(thisLine);
-            }
-         }
-         catch (IOException e)
-         {
-            RenderingHelper.renderLoggingLine("error e=" + e);
+            return opponent;
          }
       }
-      return returnVal;
+      throw new IllegalArgumentException("no scripted opponent with the given name. opponentName=" + pOpponentName);
    }
 
-
    /**
     * Get the cell number that corresponds to the given row and column
     *
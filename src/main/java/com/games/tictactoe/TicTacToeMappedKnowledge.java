@@ -0,0 +1,176 @@
+package com.games.tictactoe;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * A read-only set of canonical move sequences, held in a binary knowledge file that is memory-mapped and searched in
+ * place, so that it costs nothing to load and takes no room on the heap.
+ * <p>
+ * The file is made up of a fixed-size header followed by the packed sequences (see TicTacToeMoveSequence), one 8-byte
+ * big-endian long each, in ascending numeric order:
+ * <pre>
+ *    int  magic number ("TTTK")
+ *    int  format version
+ *    int  number of sequences
+ *    int  unused, always 0
+ *    long length in bytes of the concise log that the sequences were taken from
+ *    long number of lines in that part of the concise log
+ *    long sequence 0 ... sequence (n - 1)
+ * </pre>
+ * The recorded log length lets the knowledge be loaded as this file plus whatever has been appended to the concise
+ * log since the file was written, rather than by reading the whole log.
+ * <p>
+ * Instances are immutable, and are safe to share between threads.
+ */
+final class TicTacToeMappedKnowledge
+{
+
+
+   static final TicTacToeMappedKnowledge EMPTY = new TicTacToeMappedKnowledge(LongBuffer.allocate(0), 0, 0);
+
+   private static final int MAGIC_NUMBER = 0x5454544B;
+   private static final int FORMAT_VERSION = 1;
+   private static final int HEADER_BYTES = 32;
+
+   private final LongBuffer fSequences;
+   private final long fLogLength;
+   private final long fLogLineCount;
+
+   /**
+    * @param pSequences    the packed sequences, in ascending order
+    * @param pLogLength    the length of the concise log that the sequences were taken from
+    * @param pLogLineCount the number of lines in that part of the concise log
+    */
+   private TicTacToeMappedKnowledge(final LongBuffer pSequences, final long pLogLength, final long pLogLineCount)
+   {
+      fSequences = pSequences;
+      fLogLength = pLogLength;
+      fLogLineCount = pLogLineCount;
+   }
+
+   /**
+    * @param pFile the knowledge file to map
+    * @return the knowledge held in the given file.  Will not return null
+    * @throws IOException if the file could not be read, or is not a knowledge file
+    */
+   static TicTacToeMappedKnowledge map(final File pFile) throws IOException
+   {
+      try (
+            final RandomAccessFile in = new RandomAccessFile(pFile, "r");
+            final FileChannel channel = in.getChannel())
+      {
+         // The mapping stays valid once the channel is closed
+         final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+         if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC_NUMBER)
+         {
+            throw new IOException("not a knowledge file. file=" + pFile);
+         }
+         if (buffer.getInt(4) != FORMAT_VERSION)
+         {
+            throw new IOException("unsupported knowledge file version. version=" + buffer.getInt(4));
+         }
+         final int sequenceCount = buffer.getInt(8);
+         if (sequenceCount < 0 || buffer.capacity() != HEADER_BYTES + (long) sequenceCount * Long.BYTES)
+         {
+            throw new IOException("knowledge file is truncated. file=" + pFile);
+         }
+         buffer.position(HEADER_BYTES);
+         return new TicTacToeMappedKnowledge(buffer.slice().asLongBuffer(), buffer.getLong(16), buffer.getLong(24));
+      }
+   }
+
+   /**
+    * Write the given sequences to a knowledge file, replacing any existing file
+    *
+    * @param pFile         the file to write
+    * @param pSequences    the packed sequences to write, in any order
+    * @param pLogLength    the length of the concise log that holds the same sequences
+    * @param pLogLineCount the number of lines in the concise log
+    * @throws IOException if the file could not be written
+    */
+   static void write(final File pFile, final long[] pSequences, final long pLogLength, final long pLogLineCount)
+         throws IOException
+   {
+      final long[] sortedSequences = pSequences.clone();
+      Arrays.sort(sortedSequences);
+
+      final ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + sortedSequences.length * Long.BYTES);
+      buffer.putInt(MAGIC_NUMBER).putInt(FORMAT_VERSION).putInt(sortedSequences.length).putInt(0);
+      buffer.putLong(pLogLength).putLong(pLogLineCount);
+      buffer.asLongBuffer().put(sortedSequences);
+
+      try (final FileOutputStream out = new FileOutputStream(pFile))
+      {
+         out.write(buffer.array());
+      }
+   }
+
+   /**
+    * @param pSequence a packed canonical sequence
+    * @return true if the given sequence is held here
+    */
+   boolean contains(final long pSequence)
+   {
+      int low = 0;
+      int high = fSequences.limit() - 1;
+      while (low <= high)
+      {
+         final int middle = (low + high) >>> 1;
+         final long middleSequence = fSequences.get(middle);
+         if (middleSequence < pSequence)
+         {
+            low = middle + 1;
+         }
+         else if (middleSequence > pSequence)
+         {
+            high = middle - 1;
+         }
+         else
+         {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * @return the number of sequences held here
+    */
+   int size()
+   {
+      return fSequences.limit();
+   }
+
+   /**
+    * @param pIndex an index from 0 to size() - 1
+    * @return the sequence at the given index, in ascending order
+    */
+   long get(final int pIndex)
+   {
+      return fSequences.get(pIndex);
+   }
+
+   /**
+    * @return the length in bytes of the concise log that these sequences were taken from
+    */
+   long getLogLength()
+   {
+      return fLogLength;
+   }
+
+   /**
+    * @return the number of lines in the part of the concise log that these sequences were taken from
+    */
+   long getLogLineCount()
+   {
+      return fLogLineCount;
+   }
+}
@@ -0,0 +1,472 @@
+package com.games.tictactoe;
+
+import com.games.GameStatusEnum;
+import com.games.GameStatusInfo;
+import com.games.PlayerEnum;
+import com.games.RenderingHelper;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and timings for the work that TicTacToe does on every move and every game, so that it can be seen how the
+ * application is doing while it runs:
+ * <p>
+ * - How long the application takes to decide on a move, and how long it takes to work out the status of a game
+ * - How often the learned moves to avoid are looked up, and how often a lookup finds something to avoid
+ * - How games end, including how many the application gives up
+ * - How long the knowledge store takes to load, and how long each write of learned moves to the files blocks
+ * <p>
+ * There is one instance for the whole process, shared by every manager and store (see getInstance()).  Every counter
+ * is striped (see LongAdder), and every timing goes into a TicTacToeLatencyHistogram, so recording is cheap, never
+ * allocates, and doesn't make threads wait on each other.  Deciding on a move and working out the status of a game
+ * each take about as long as reading the clock twice, so only one call in SAMPLE_INTERVAL of each is timed: the rest
+ * cost a decrement of a per-thread countdown and an increment of their count.  Every call is counted, so the counts
+ * are exact, and the number of calls timed is reported alongside them.  Loads and saves are always timed.  Setting the system
+ * property ttt.metrics (PROPERTY_ENABLED) to false turns recording off altogether; it's read once, when this class is
+ * first used.  Even sampled, recording slows the fastest training runs down measurably, so PlayTheGame turns it off
+ * for --train and --simulate unless their metrics are asked for.
+ * <p>
+ * The metrics can be read over JMX once registerMBean() has been called, or rendered as a text report (see
+ * getReport()).
+ */
+public final class TicTacToeMetrics
+      implements TicTacToeMetricsMBean
+{
+
+
+   public static final String OBJECT_NAME = "com.games.tictactoe:type=TicTacToeMetrics";
+
+   public static final String PROPERTY_ENABLED = "ttt.metrics";
+
+   private static final boolean IS_ENABLED = Boolean.parseBoolean(System.getProperty(PROPERTY_ENABLED, "true"));
+
+   private static final TicTacToeMetrics INSTANCE = new TicTacToeMetrics();
+
+   // Must be a power of two
+   static final int SAMPLE_INTERVAL = 16;
+
+   // Returned by the start...Timer() methods for a call that isn't to be timed
+   private static final long NOT_TIMED = Long.MIN_VALUE;
+
+   // Indexes into each thread's countdowns, one for each kind of call that is sampled
+   private static final int MOVE_DECISION_COUNTDOWN = 0;
+   private static final int STATUS_EVALUATION_COUNTDOWN = 1;
+
+   // Each thread counts down the calls of each kind to the next one to time, so that picking one isn't a random draw.
+   // Each starts at a random point in the interval, so that the first, and slowest, call on a thread isn't always timed
+   private static final ThreadLocal<int[]> SAMPLE_COUNTDOWNS = ThreadLocal.withInitial(() ->
+   {
+      final int[] countdowns = new int[2];
+      Arrays.setAll(countdowns, countdown -> ThreadLocalRandom.current().nextInt(SAMPLE_INTERVAL) + 1);
+      return countdowns;
+   });
+
+   private static final double NANOS_PER_MICRO = 1000.0;
+   private static final double P50 = 0.50;
+   private static final double P99 = 0.99;
+
+   private final TicTacToeLatencyHistogram fMoveDecisions = new TicTacToeLatencyHistogram();
+   private final TicTacToeLatencyHistogram fStatusEvaluations = new TicTacToeLatencyHistogram();
+   private final TicTacToeLatencyHistogram fKnowledgeLoads = new TicTacToeLatencyHistogram();
+   private final TicTacToeLatencyHistogram fKnowledgeSaves = new TicTacToeLatencyHistogram();
+
+   private final LongAdder fAvoidLookups = new LongAdder();
+   private final LongAdder fAvoidLookupHits = new LongAdder();
+
+   private final LongAdder fApplicationWins = new LongAdder();
+   private final LongAdder fApplicationLosses = new LongAdder();
+   private final LongAdder fTies = new LongAdder();
+   private final LongAdder fApplicationQuits = new LongAdder();
+   private final LongAdder fHumanQuits = new LongAdder();
+
+   private TicTacToeMetrics()
+   {
+   }
+
+   /**
+    * @return the metrics for this process.  Will not return null
+    */
+   public static TicTacToeMetrics getInstance()
+   {
+      return INSTANCE;
+   }
+
+   /**
+    * Make the metrics readable over JMX, under OBJECT_NAME, shortly after this returns.  Does nothing if they already
+    * are.
+    * <p>
+    * Starting the platform MBean server can take longer than everything else at startup put together, so it's done on
+    * a background thread, rather than holding up the first game.
+    */
+   public void registerMBean()
+   {
+      final Thread registerThread = new Thread(() ->
+      {
+         try
+         {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+         }
+         catch (InstanceAlreadyExistsException e)
+         {
+            // Already registered, which is fine
+         }
+         catch (JMException e)
+         {
+            RenderingHelper.renderLoggingLine("registerMBean: problem registering the metrics. e=" + e);
+         }
+      }, "ttt-metrics-register");
+      registerThread.setDaemon(true);
+      registerThread.start();
+   }
+
+   /**
+    * @return the time to pass to one of the record...() methods when the work being timed is done
+    */
+   long startTimer()
+   {
+      return IS_ENABLED ? System.nanoTime() : NOT_TIMED;
+   }
+
+   /**
+    * @return the time to pass to recordMoveDecision() once the application has decided on its move
+    */
+   long startMoveDecisionTimer()
+   {
+      return startSampledTimer(MOVE_DECISION_COUNTDOWN);
+   }
+
+   /**
+    * @return the time to pass to recordStatusEvaluation() once the status of the game has been worked out
+    */
+   long startStatusEvaluationTimer()
+   {
+      return startSampledTimer(STATUS_EVALUATION_COUNTDOWN);
+   }
+
+   /**
+    * @param pCountdown the index of this thread's countdown for the kind of call being timed
+    * @return the current time for one call of the kind in SAMPLE_INTERVAL on each thread; for the others, a value
+    * that has the record...() methods count the call without timing it
+    */
+   private static long startSampledTimer(final int pCountdown)
+   {
+      if (!IS_ENABLED)
+      {
+         return NOT_TIMED;
+      }
+      final int[] countdowns = SAMPLE_COUNTDOWNS.get();
+      if (--countdowns[pCountdown] > 0)
+      {
+         return NOT_TIMED;
+      }
+      countdowns[pCountdown] = SAMPLE_INTERVAL;
+      return System.nanoTime();
+   }
+
+   /**
+    * @param pStartNanos the time returned by startMoveDecisionTimer() before the application decided on its move
+    */
+   void recordMoveDecision(final long pStartNanos)
+   {
+      record(fMoveDecisions, pStartNanos);
+   }
+
+   /**
+    * @param pStartNanos the time returned by startStatusEvaluationTimer() before the status of the game was worked out
+    */
+   void recordStatusEvaluation(final long pStartNanos)
+   {
+      record(fStatusEvaluations, pStartNanos);
+   }
+
+   /**
+    * @param pStartNanos the time returned by startTimer() before the knowledge store was loaded
+    */
+   void recordKnowledgeLoad(final long pStartNanos)
+   {
+      record(fKnowledgeLoads, pStartNanos);
+   }
+
+   /**
+    * @param pStartNanos the time returned by startTimer() before learned moves were written to the files
+    */
+   void recordKnowledgeSave(final long pStartNanos)
+   {
+      record(fKnowledgeSaves, pStartNanos);
+   }
+
+   /**
+    * @param pCellsToAvoid the mask of cells that a lookup of the moves to avoid found
+    */
+   void recordAvoidLookup(final int pCellsToAvoid)
+   {
+      if (!IS_ENABLED)
+      {
+         return;
+      }
+      fAvoidLookups.increment();
+      if (pCellsToAvoid != 0)
+      {
+         fAvoidLookupHits.increment();
+      }
+   }
+
+   /**
+    * @param pGameStatusInfo the final status of a game
+    */
+   void recordGameOver(final GameStatusInfo pGameStatusInfo)
+   {
+      if (!IS_ENABLED)
+      {
+         return;
+      }
+      final boolean isApplicationFinal = pGameStatusInfo.getFinalPlayer() == PlayerEnum.APPLICATION;
+      final GameStatusEnum gameStatus = pGameStatusInfo.getGameStatus();
+      if (gameStatus == GameStatusEnum.WON)
+      {
+         (isApplicationFinal ? fApplicationWins : fApplicationLosses).increment();
+      }
+      else if (gameStatus == GameStatusEnum.TIE)
+      {
+         fTies.increment();
+      }
+      else if (gameStatus == GameStatusEnum.QUIT)
+      {
+         (isApplicationFinal ? fApplicationQuits : fHumanQuits).increment();
+      }
+   }
+
+   /**
+    * @param pHistogram  the histogram to record in
+    * @param pStartNanos the time returned by one of the start...Timer() methods before the work was started
+    */
+   private static void record(final TicTacToeLatencyHistogram pHistogram, final long pStartNanos)
+   {
+      if (!IS_ENABLED)
+      {
+         return;
+      }
+      pHistogram.recordCall();
+      if (pStartNanos != NOT_TIMED)
+      {
+         pHistogram.record(System.nanoTime() - pStartNanos);
+      }
+   }
+
+   @Override
+   public long getMoveDecisionCount()
+   {
+      return fMoveDecisions.getCount();
+   }
+
+   @Override
+   public long getMoveDecisionSampleCount()
+   {
+      return fMoveDecisions.getSampleCount();
+   }
+
+   @Override
+   public double getMoveDecisionMeanMicros()
+   {
+      return fMoveDecisions.getMeanNanos() / NANOS_PER_MICRO;
+   }
+
+   @Override
+   public double getMoveDecisionP99Micros()
+   {
+      return fMoveDecisions.getPercentileNanos(P99) / NANOS_PER_MICRO;
+   }
+
+   @Override
+   public double getMoveDecisionMaxMicros()
+   {
+      return fMoveDecisions.getMaxNanos() / NANOS_PER_MICRO;
+   }
+
+   @Override
+   public long getStatusEvaluationCount()
+   {
+      return fStatusEvaluations.getCount();
+   }
+
+   @Override
+   public long getStatusEvaluationSampleCount()
+   {
+      return fStatusEvaluations.getSampleCount();
+   }
+
+   @Override
+   public double getStatusEvaluationMeanMicros()
+   {
+      return fStatusEvaluations.getMeanNanos() / NANOS_PER_MICRO;
+   }
+
+   @Override
+   public double getStatusEvaluationP99Micros()
+   {
+      return fStatusEvaluations.getPercentileNanos(P99) / NANOS_PER_MICRO;
+   }
+
+   @Override
+   public double getStatusEvaluationMaxMicros()
+   {
+      return fStatusEvaluations.getMaxNanos() / NANOS_PER_MICRO;
+   }
+
+   @Override
+   public long getKnowledgeLoadCount()
+   {
+      return fKnowledgeLoads.getCount();
+   }
+
+   @Override
+   public double getKnowledgeLoadMeanMicros()
+   {
+      return fKnowledgeLoads.getMeanNanos() / NANOS_PER_MICRO;
+   }
+
+   @Override
+   public double getKnowledgeLoadP99Micros()
+   {
+      return fKnowledgeLoads.getPercentileNanos(P99) / NANOS_PER_MICRO;
+   }
+
+   @Override
+   public double getKnowledgeLoadMaxMicros()
+   {
+      return fKnowledgeLoads.getMaxNanos() / NANOS_PER_MICRO;
+   }
+
+   @Override
+   public long getKnowledgeSaveCount()
+   {
+      return fKnowledgeSaves.getCount();
+   }
+
+   @Override
+   public double getKnowledgeSaveMeanMicros()
+   {
+      return fKnowledgeSaves.getMeanNanos() / NANOS_PER_MICRO;
+   }
+
+   @Override
+   public double getKnowledgeSaveP99Micros()
+   {
+      return fKnowledgeSaves.getPercentileNanos(P99) / NANOS_PER_MICRO;
+   }
+
+   @Override
+   public double getKnowledgeSaveMaxMicros()
+   {
+      return fKnowledgeSaves.getMaxNanos() / NANOS_PER_MICRO;
+   }
+
+   @Override
+   public long getAvoidLookupCount()
+   {
+      return fAvoidLookups.sum();
+   }
+
+   @Override
+   public long getAvoidLookupHitCount()
+   {
+      return fAvoidLookupHits.sum();
+   }
+
+   @Override
+   public long getGamesFinishedCount()
+   {
+      return getApplicationWinCount() + getApplicationLossCount() + getTieCount() + getApplicationQuitCount()
+            + getHumanQuitCount();
+   }
+
+   @Override
+   public long getApplicationWinCount()
+   {
+      return fApplicationWins.sum();
+   }
+
+   @Override
+   public long getApplicationLossCount()
+   {
+      return fApplicationLosses.sum();
+   }
+
+   @Override
+   public long getTieCount()
+   {
+      return fTies.sum();
+   }
+
+   @Override
+   public long getApplicationQuitCount()
+   {
+      return fApplicationQuits.sum();
+   }
+
+   @Override
+   public long getHumanQuitCount()
+   {
+      return fHumanQuits.sum();
+   }
+
+   @Override
+   public String getReport()
+   {
+      final StringBuilder report = new StringBuilder();
+      report.append("Metrics").append(IS_ENABLED
+            ? " (move decisions and status evaluations are timed for 1 call in " + SAMPLE_INTERVAL
+            + "; every call is counted)"
+            : " (turned off by " + PROPERTY_ENABLED + "=false)").append('\n');
+      appendTiming(report, "Move decision", fMoveDecisions);
+      appendTiming(report, "Status evaluation", fStatusEvaluations);
+      appendTiming(report, "Knowledge load", fKnowledgeLoads);
+      appendTiming(report, "Knowledge save", fKnowledgeSaves);
+
+      final long lookups = getAvoidLookupCount();
+      final long hits = getAvoidLookupHitCount();
+      report.append(String.format(Locale.ROOT, "  %-18s count=%d, hits=%d (%.1f%%)\n", "Avoid lookups", lookups, hits,
+            lookups == 0 ? 0.0 : 100.0 * hits / lookups));
+      report.append(String.format(Locale.ROOT,
+            "  %-18s finished=%d, application wins=%d, losses=%d, ties=%d, application quits=%d, human quits=%d",
+            "Games", getGamesFinishedCount(), getApplicationWinCount(), getApplicationLossCount(), getTieCount(),
+            getApplicationQuitCount(), getHumanQuitCount()));
+      return report.toString();
+   }
+
+   /**
+    * @param pReport    the report to add to
+    * @param pName      the name of the work timed
+    * @param pHistogram its timings
+    */
+   private static void appendTiming(final StringBuilder pReport, final String pName, final TicTacToeLatencyHistogram pHistogram)
+   {
+      pReport.append(String.format(Locale.ROOT,
+            "  %-18s count=%d, timed=%d, mean=%.2f us, p50<=%.2f us, p99<=%.2f us, max=%.2f us\n", pName,
+            pHistogram.getCount(), pHistogram.getSampleCount(), pHistogram.getMeanNanos() / NANOS_PER_MICRO, pHistogram.getPercentileNanos(P50) / NANOS_PER_MICRO,
+            pHistogram.getPercentileNanos(P99) / NANOS_PER_MICRO, pHistogram.getMaxNanos() / NANOS_PER_MICRO));
+   }
+
+   @Override
+   public void reset()
+   {
+      fMoveDecisions.reset();
+      fStatusEvaluations.reset();
+      fKnowledgeLoads.reset();
+      fKnowledgeSaves.reset();
+      fAvoidLookups.reset();
+      fAvoidLookupHits.reset();
+      fApplicationWins.reset();
+      fApplicationLosses.reset();
+      fTies.reset();
+      fApplicationQuits.reset();
+      fHumanQuits.reset();
+   }
+}
@@ -0,0 +1,83 @@
+package com.games.tictactoe;
+
+/**
+ * The management interface of TicTacToeMetrics, as seen over JMX, such as from jconsole.
+ * <p>
+ * Durations are in microseconds.  Percentiles are accurate to within a factor of two (see TicTacToeLatencyHistogram).
+ * Every call is counted, but move decisions and status evaluations are only timed for one call in
+ * TicTacToeMetrics.SAMPLE_INTERVAL; their ...SampleCount() attributes give the number of calls timed.
+ */
+public interface TicTacToeMetricsMBean
+{
+
+   long getMoveDecisionCount();
+
+   long getMoveDecisionSampleCount();
+
+   double getMoveDecisionMeanMicros();
+
+   double getMoveDecisionP99Micros();
+
+   double getMoveDecisionMaxMicros();
+
+   long getStatusEvaluationCount();
+
+   long getStatusEvaluationSampleCount();
+
+   double getStatusEvaluationMeanMicros();
+
+   double getStatusEvaluationP99Micros();
+
+   double getStatusEvaluationMaxMicros();
+
+   long getKnowledgeLoadCount();
+
+   double getKnowledgeLoadMeanMicros();
+
+   double getKnowledgeLoadP99Micros();
+
+   double getKnowledgeLoadMaxMicros();
+
+   long getKnowledgeSaveCount();
+
+   double getKnowledgeSaveMeanMicros();
+
+   double getKnowledgeSaveP99Micros();
+
+   double getKnowledgeSaveMaxMicros();
+
+   /**
+    * @return the number of times the learned moves to avoid were looked up to choose a move
+    */
+   long getAvoidLookupCount();
+
+   /**
+    * @return the number of those lookups that found at least one move to avoid
+    */
+   long getAvoidLookupHitCount();
+
+   long getGamesFinishedCount();
+
+   long getApplicationWinCount();
+
+   long getApplicationLossCount();
+
+   long getTieCount();
+
+   /**
+    * @return the number of games that the application gave up, as every move left had been shown to lose
+    */
+   long getApplicationQuitCount();
+
+   long getHumanQuitCount();
+
+   /**
+    * @return every metric, as the text report also rendered by the --metrics option
+    */
+   String getReport();
+
+   /**
+    * Set every counter and duration back to zero
+    */
+   void reset();
+}
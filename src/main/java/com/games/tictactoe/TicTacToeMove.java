@@ -4,16 +4,63 @@ import com.games.IGameMove;
 
 /**
  * Class representing a particular move in TicTacToe
+ * <p>
+ * There are only 19 different moves: each of the 9 cells selected by X or by O, and the choice to quit.  Each is
+ * built once, when the class is loaded, and handed out by of() and quit(), so that making a move never allocates.
+ * Instances are immutable, and are safe to share between threads.
+ * <p>
+ * Each move also has a compact int encoding (see getEncoding()): 0 for quitting, 1 to 9 for the cells selected by X,
+ * and 10 to 18 for the cells selected by O.
  */
-public class TicTacToeMove
+public final class TicTacToeMove
       implements IGameMove
 {
 
 
    private static final int NULL_CELL_NUMBER = -1;
-   private CellStatusEnum fCellStatus;
-   private boolean fChooseToStop;
-   private int fCellNumber;
+   private static final int CELL_COUNT = 9;
+
+   static final int QUIT_ENCODING = 0;
+   static final int ENCODING_COUNT = 2 * CELL_COUNT + 1;
+
+   // Indexed by encoding
+   private static final TicTacToeMove[] MOVES = buildMoves();
+
+   private final CellStatusEnum fCellStatus;
+   private final boolean fChooseToStop;
+   private final int fCellNumber;
+   private final int fEncoding;
+
+   /**
+    * @param pCellNumber   a number from 1 to 9, or NULL_CELL_NUMBER for quitting
+    * @param pCellStatus   the new status to give the cell, or null for quitting
+    * @param pChooseToStop true if the player has decided to stop playing
+    * @param pEncoding     the compact encoding of the move
+    */
+   private TicTacToeMove(final int pCellNumber, final CellStatusEnum pCellStatus, final boolean pChooseToStop,
+                         final int pEncoding)
+   {
+      fCellNumber = pCellNumber;
+      fCellStatus = pCellStatus;
+      fChooseToStop = pChooseToStop;
+      fEncoding = pEncoding;
+   }
+
+   /**
+    * @return every move, indexed by its encoding
+    */
+   private static TicTacToeMove[] buildMoves()
+   {
+      final TicTacToeMove[] returnVal = new TicTacToeMove[ENCODING_COUNT];
+      returnVal[QUIT_ENCODING] = new TicTacToeMove(NULL_CELL_NUMBER, null, true, QUIT_ENCODING);
+      for (int cellNumber = 1; cellNumber <= CELL_COUNT; cellNumber++)
+      {
+         returnVal[cellNumber] = new TicTacToeMove(cellNumber, CellStatusEnum.X_SELECTED, false, cellNumber);
+         returnVal[cellNumber + CELL_COUNT] = new TicTacToeMove(cellNumber, CellStatusEnum.O_SELECTED, false,
+               cellNumber + CELL_COUNT);
+      }
+      return returnVal;
+   }
 
    /**
     *
@@ -24,39 +71,46 @@ public class TicTacToeMove
     *    7 8 9
     *
     * @param pCellNumber a number from 1 to 9, representing the cells in the grid
-    * @param pCellStatus the new status to give a cell
+    * @param pCellStatus the new status to give a cell; X_SELECTED or O_SELECTED
+    * @return the move that gives the cell that status.  Will not return null
     */
-   public TicTacToeMove(int pCellNumber, CellStatusEnum pCellStatus)
+   public static TicTacToeMove of(final int pCellNumber, final CellStatusEnum pCellStatus)
    {
-      if (pCellNumber < 1 || pCellNumber > 9)
+      if (pCellNumber < 1 || pCellNumber > CELL_COUNT)
       {
          throw new IllegalArgumentException("cellNumber is not valid. cellNumber=" + pCellNumber);
       }
-      if (pCellStatus == null)
+      if (pCellStatus == null || pCellStatus == CellStatusEnum.UNSELECTED)
       {
-         throw new IllegalArgumentException("cell status must not be null");
+         throw new IllegalArgumentException("cell status must be X_SELECTED or O_SELECTED. cellStatus=" + pCellStatus);
       }
-
-      init(pCellNumber, pCellStatus, false);
-
+      return MOVES[pCellStatus == CellStatusEnum.X_SELECTED ? pCellNumber : pCellNumber + CELL_COUNT];
    }
 
-
-   public TicTacToeMove(final boolean pChooseToStop)
+   /**
+    * @return the move by which a player chooses to stop playing.  Will not return null
+    */
+   public static TicTacToeMove quit()
    {
-      init(NULL_CELL_NUMBER, null, pChooseToStop);
+      return MOVES[QUIT_ENCODING];
    }
 
-   private void init(final int pCellNumber, final CellStatusEnum pCellStatus, final boolean pChooseToStop)
+   /**
+    * @param pEncoding the encoding of a move, as returned by getEncoding()
+    * @return the move with the given encoding.  Will not return null
+    */
+   public static TicTacToeMove fromEncoding(final int pEncoding)
    {
-      fCellNumber = pCellNumber;
-      fCellStatus = pCellStatus;
-      fChooseToStop = pChooseToStop;
+      if (pEncoding < 0 || pEncoding >= ENCODING_COUNT)
+      {
+         throw new IllegalArgumentException("encoding is not valid. encoding=" + pEncoding);
+      }
+      return MOVES[pEncoding];
    }
 
    /**
     *
-    * @return the status of the move
+    * @return the status of the move, or null if this move selects no cell
     */
    public CellStatusEnum getCellStatus()
    {
@@ -69,16 +123,41 @@ public class TicTacToeMove
       return fChooseToStop;
    }
 
+   /**
+    * @return the compact encoding of this move, from 0 to 18, as described above
+    */
+   public int getEncoding()
+   {
+      return fEncoding;
+   }
+
+   // Moves are only built by this class, one per encoding, but are compared by value all the same so that equality
+   // doesn't depend on that
+   @Override
+   public boolean equals(final Object pOther)
+   {
+      return pOther instanceof TicTacToeMove && ((TicTacToeMove) pOther).fEncoding == fEncoding;
+   }
+
+   @Override
+   public int hashCode()
+   {
+      return fEncoding;
+   }
 
    @Override
    public String toString()
    {
       return "TicTacToeMove{" +
+            "fCellNumber=" + fCellNumber +
             ", fCellStatus=" + fCellStatus +
             ", fChooseToStop=" + fChooseToStop +
             '}';
    }
 
+   /**
+    * @return the 1-based number of the cell selected, or -1 if this move selects no cell
+    */
    public int getCellNumber()
    {
       return fCellNumber;
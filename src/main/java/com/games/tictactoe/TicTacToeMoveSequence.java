@@ -0,0 +1,123 @@
+package com.games.tictactoe;
+
+import com.games.IGameMove;
+
+import java.util.List;
+
+/**
+ * Static helpers for move sequences packed into a single long, so that sequences can be built, transformed and looked
+ * up without boxing or allocation.
+ * <p>
+ * The low 4 bits hold the number of moves (0 to 9).  Each move is the 1-based number of the cell that was selected,
+ * held in its own 4 bits: the first move in bits 4 to 7, the second in bits 8 to 11, and so on.  For example, the
+ * sequence "358" is packed as 0x8533.
+ * <p>
+ * The empty sequence packs to 0, which is never a valid key for the knowledge, since every entry holds at least one move.
+ */
+final class TicTacToeMoveSequence
+{
+
+
+   static final long EMPTY = 0L;
+
+   static final int MAX_LENGTH = TicTacToeLookupTables.MAX_CELLS;
+
+   private static final int BITS_PER_MOVE = 4;
+   private static final long NIBBLE_MASK = 0xFL;
+
+   private TicTacToeMoveSequence()
+   {
+      // static helpers only
+   }
+
+   /**
+    * @param pSequence a packed sequence
+    * @return the number of moves in the sequence
+    */
+   static int length(final long pSequence)
+   {
+      return (int) (pSequence & NIBBLE_MASK);
+   }
+
+   /**
+    * @param pSequence a packed sequence
+    * @param pIndex    a 0-based position in the sequence
+    * @return the 1-based cell number of the move at the given position
+    */
+   static int moveAt(final long pSequence, final int pIndex)
+   {
+      return (int) ((pSequence >>> (BITS_PER_MOVE * (pIndex + 1))) & NIBBLE_MASK);
+   }
+
+   /**
+    * @param pSequence   a packed sequence, holding fewer than 9 moves
+    * @param pCellNumber the 1-based cell number of the move to add
+    * @return the given sequence, followed by the given move
+    */
+   static long append(final long pSequence, final int pCellNumber)
+   {
+      final int length = length(pSequence);
+      return (pSequence | ((long) pCellNumber << (BITS_PER_MOVE * (length + 1)))) + 1;
+   }
+
+   /**
+    * @param pSequence a packed sequence, holding at least one move
+    * @return the given sequence, without its last move
+    */
+   static long withoutLastMove(final long pSequence)
+   {
+      final int length = length(pSequence);
+      return (pSequence & ~(NIBBLE_MASK << (BITS_PER_MOVE * length))) - 1;
+   }
+
+   /**
+    * @param pMoves the moves so far
+    * @return the packed sequence of the given moves
+    */
+   static long fromMoves(final List<? extends IGameMove> pMoves)
+   {
+      long returnVal = EMPTY;
+      for (int i = 0; i < pMoves.size(); i++)
+      {
+         returnVal = append(returnVal, ((TicTacToeMove) pMoves.get(i)).getCellNumber());
+      }
+      return returnVal;
+   }
+
+   /**
+    * @param pMoveSummary a String summary of the moves, in the form "3578"
+    * @return the packed sequence of the given moves
+    */
+   static long fromConciseString(final CharSequence pMoveSummary)
+   {
+      if (pMoveSummary.length() > MAX_LENGTH)
+      {
+         throw new IllegalArgumentException("move summary is too long. moveSummary=" + pMoveSummary);
+      }
+      long returnVal = EMPTY;
+      for (int i = 0; i < pMoveSummary.length(); i++)
+      {
+         final int cellNumber = pMoveSummary.charAt(i) - '0';
+         if (cellNumber < 1 || cellNumber > TicTacToeLookupTables.MAX_CELLS)
+         {
+            throw new IllegalArgumentException("move summary must only hold digits from 1 to 9. moveSummary=" + pMoveSummary);
+         }
+         returnVal = append(returnVal, cellNumber);
+      }
+      return returnVal;
+   }
+
+   /**
+    * @param pSequence a packed sequence
+    * @return a String summary of the moves, in the form "3578"
+    */
+   static String toConciseString(final long pSequence)
+   {
+      final char[] digits = new char[length(pSequence)];
+      for (int i = 0; i < digits.length; i++)
+      {
+         digits[i] = (char) ('0' + moveAt(pSequence, i));
+      }
+      return new String(digits);
+   }
+}
@@ -0,0 +1,246 @@
+package com.games.tictactoe;
+
+import com.games.RenderingHelper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The best replies for every position that can come up in a game, worked out when the application is built and
+ * shipped as a classpath resource, so that perfect play needs neither a learning phase nor any work at startup.
+ * <p>
+ * Only canonical positions (see TicTacToeSymmetry) are held; a board is looked up by its canonical position, and the
+ * replies found are moved back onto the board by undoing the symmetry that made it canonical.  The resource is made
+ * up of a header, followed by one entry per position where the game is still on, in ascending order of canonical
+ * position index:
+ * <pre>
+ *    int   magic number ("TTTB")
+ *    int   format version
+ *    int   number of entries
+ *    short canonical position index, short mask of the best cells ... for each entry
+ * </pre>
+ * The resource is written by running this class's main() as part of the build (see build.gradle and build.xml).  If
+ * it's missing, as it may be when running from an IDE, the book is worked out at first use instead.
+ * <p>
+ * Instances are immutable, and are safe to share between threads.
+ */
+final class TicTacToeOpeningBook
+{
+
+
+   static final String RESOURCE_NAME = "tttOpeningBook.bin";
+
+   private static final int MAGIC_NUMBER = 0x54545442;
+   private static final int FORMAT_VERSION = 1;
+   private static final int ENTRY_BYTES = 4;
+
+   private static final int FULL_BOARD_MASK = TicTacToeLookupTables.OCCUPANCY_COUNT - 1;
+
+   // In ascending order, each with its best cells at the same index in fBestCellMasks
+   private final int[] fPositionIndexes;
+   private final short[] fBestCellMasks;
+
+   /**
+    * @param pPositionIndexes the canonical position indexes, in ascending order
+    * @param pBestCellMasks   the mask of the best cells for each position
+    */
+   private TicTacToeOpeningBook(final int[] pPositionIndexes, final short[] pBestCellMasks)
+   {
+      fPositionIndexes = pPositionIndexes;
+      fBestCellMasks = pBestCellMasks;
+   }
+
+   /**
+    * @return the book built with the application, or one worked out now if it wasn't.  Will not return null
+    */
+   static TicTacToeOpeningBook getInstance()
+   {
+      return BookHolder.BOOK;
+   }
+
+   /**
+    * Write the book to a file, as part of the build
+    *
+    * @param pArgs the file to write
+    * @throws IOException if the file could not be written
+    */
+   public static void main(final String[] pArgs) throws IOException
+   {
+      if (pArgs.length != 1)
+      {
+         throw new IllegalArgumentException("expected the file to write the opening book to. args=" + Arrays.toString(pArgs));
+      }
+      final File file = new File(pArgs[0]);
+      final File directory = file.getAbsoluteFile().getParentFile();
+      if (!directory.isDirectory() && !directory.mkdirs())
+      {
+         throw new IOException("could not create the directory for the opening book. directory=" + directory);
+      }
+      final TicTacToeOpeningBook book = generate();
+      book.write(file);
+      RenderingHelper.renderOutputLine("Wrote " + book.fPositionIndexes.length + " positions to the opening book " + file);
+   }
+
+   /**
+    * @param pXMask the occupancy mask of the cells holding an X
+    * @param pOMask the occupancy mask of the cells holding an O
+    * @return the lowest-numbered of the best cells for the player to move, or 0 if the game is over at the given
+    * position, or it can't be reached in a game
+    */
+   int getBestCell(final int pXMask, final int pOMask)
+   {
+      final int symmetry = TicTacToeSymmetry.getCanonicalSymmetry(pXMask, pOMask);
+      final int canonicalPositionIndex = TicTacToeLookupTables.getPositionIndex(
+            TicTacToeSymmetry.permuteOccupancy(symmetry, pXMask), TicTacToeSymmetry.permuteOccupancy(symmetry, pOMask));
+      final int entry = Arrays.binarySearch(fPositionIndexes, canonicalPositionIndex);
+      if (entry < 0)
+      {
+         return 0;
+      }
+      final int bestCells = TicTacToeSymmetry.permuteOccupancy(TicTacToeSymmetry.getInverseSymmetry(symmetry), fBestCellMasks[entry]);
+      return Integer.numberOfTrailingZeros(bestCells) + 1;
+   }
+
+   /**
+    * @return a book holding every canonical position reachable in a game where the game is still on, with the best
+    * cells worked out by TicTacToeSolver
+    */
+   static TicTacToeOpeningBook generate()
+   {
+      final boolean[] isCanonicalReachable = new boolean[TicTacToeLookupTables.POSITION_COUNT];
+      markReachablePositions(0, 0, new boolean[TicTacToeLookupTables.POSITION_COUNT], isCanonicalReachable);
+
+      int entryCount = 0;
+      for (boolean isReachable : isCanonicalReachable)
+      {
+         entryCount += isReachable ? 1 : 0;
+      }
+      final int[] positionIndexes = new int[entryCount];
+      final short[] bestCellMasks = new short[entryCount];
+      int entry = 0;
+      for (int positionIndex = 0; positionIndex < isCanonicalReachable.length; positionIndex++)
+      {
+         if (isCanonicalReachable[positionIndex])
+         {
+            positionIndexes[entry] = positionIndex;
+            bestCellMasks[entry] = (short) TicTacToeSolver.getBestCellMask(positionIndex);
+            entry++;
+         }
+      }
+      return new TicTacToeOpeningBook(positionIndexes, bestCellMasks);
+   }
+
+   /**
+    * @param pXMask               the occupancy mask of the cells holding an X
+    * @param pOMask               the occupancy mask of the cells holding an O
+    * @param pVisited             indexed by position index; true for the positions already visited
+    * @param pIsCanonicalReachable indexed by position index; set to true for the canonical position of every position
+    *                             visited where the game is still on
+    */
+   private static void markReachablePositions(final int pXMask, final int pOMask, final boolean[] pVisited,
+                                              final boolean[] pIsCanonicalReachable)
+   {
+      final int positionIndex = TicTacToeLookupTables.getPositionIndex(pXMask, pOMask);
+      if (pVisited[positionIndex] || TicTacToeLookupTables.getPositionStatus(positionIndex).isGameOver())
+      {
+         return;
+      }
+      pVisited[positionIndex] = true;
+      pIsCanonicalReachable[TicTacToeSymmetry.getCanonicalPositionIndex(pXMask, pOMask)] = true;
+
+      final boolean isXToMove = Integer.bitCount(pXMask) == Integer.bitCount(pOMask);
+      for (int emptyCells = ~(pXMask | pOMask) & FULL_BOARD_MASK; emptyCells != 0; emptyCells &= emptyCells - 1)
+      {
+         final int cellBit = Integer.lowestOneBit(emptyCells);
+         markReachablePositions(isXToMove ? pXMask | cellBit : pXMask, isXToMove ? pOMask : pOMask | cellBit,
+               pVisited, pIsCanonicalReachable);
+      }
+   }
+
+   /**
+    * @param pFile the file to write the book to
+    * @throws IOException if the file could not be written
+    */
+   private void write(final File pFile) throws IOException
+   {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(pFile))))
+      {
+         out.writeInt(MAGIC_NUMBER);
+         out.writeInt(FORMAT_VERSION);
+         out.writeInt(fPositionIndexes.length);
+         for (int i = 0; i < fPositionIndexes.length; i++)
+         {
+            out.writeShort(fPositionIndexes[i]);
+            out.writeShort(fBestCellMasks[i]);
+         }
+      }
+   }
+
+   /**
+    * @param pInputStream the resource to read; read in full, but not closed
+    * @return the book held in the resource.  Will not return null
+    * @throws IOException if the resource could not be read, or is not an opening book
+    */
+   private static TicTacToeOpeningBook read(final InputStream pInputStream) throws IOException
+   {
+      final DataInputStream in = new DataInputStream(new BufferedInputStream(pInputStream));
+      final int magicNumber = in.readInt();
+      final int formatVersion = in.readInt();
+      final int entryCount = in.readInt();
+      if (magicNumber != MAGIC_NUMBER || formatVersion != FORMAT_VERSION || entryCount < 0
+            || entryCount > TicTacToeLookupTables.POSITION_COUNT)
+      {
+         throw new IOException("not an opening book of a known version. magicNumber=" + magicNumber
+               + ", formatVersion=" + formatVersion + ", entryCount=" + entryCount);
+      }
+
+      // The entries are read in one go, then unpacked from memory
+      final byte[] entries = new byte[entryCount * ENTRY_BYTES];
+      in.readFully(entries);
+      final ByteBuffer entryBuffer = ByteBuffer.wrap(entries);
+      final int[] positionIndexes = new int[entryCount];
+      final short[] bestCellMasks = new short[entryCount];
+      for (int i = 0; i < entryCount; i++)
+      {
+         positionIndexes[i] = entryBuffer.getShort();
+         bestCellMasks[i] = entryBuffer.getShort();
+      }
+      return new TicTacToeOpeningBook(positionIndexes, bestCellMasks);
+   }
+
+   /**
+    * @return the book held in the classpath resource, or, failing that, one worked out now
+    */
+   private static TicTacToeOpeningBook load()
+   {
+      try (InputStream in = TicTacToeOpeningBook.class.getResourceAsStream(RESOURCE_NAME))
+      {
+         if (in != null)
+         {
+            return read(in);
+         }
+         RenderingHelper.renderLoggingLine("load: no opening book on the classpath; working it out instead");
+      }
+      catch (IOException e)
+      {
+         RenderingHelper.renderLoggingLine("load: problem reading the opening book; working it out instead. e=" + e);
+      }
+      return generate();
+   }
+
+   /**
+    * Holds the book, so that it's only loaded the first time it's needed
+    */
+   private static final class BookHolder
+   {
+      private static final TicTacToeOpeningBook BOOK = load();
+   }
+}
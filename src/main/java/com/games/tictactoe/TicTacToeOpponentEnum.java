@@ -0,0 +1,118 @@
+package com.games.tictactoe;
+
+import com.games.IGameBoard;
+import com.games.IGameMove;
+import com.games.IGameOpponent;
+
+import java.util.Random;
+
+/**
+ * Scripted opponents for TicTacToe.  Each one plays 'O', in place of the human player.
+ */
+public enum TicTacToeOpponentEnum
+      implements IGameOpponent
+{
+
+   // Chooses any empty cell, at random
+   RANDOM
+         {
+            @Override
+            int chooseCell(final int pXMask, final int pOMask, final int pEmptyMask, final Random pRandom)
+            {
+               return getRandomCell(pEmptyMask, pRandom);
+            }
+         },
+
+   // Always chooses the lowest-numbered empty cell
+   FIRST_AVAILABLE
+         {
+            @Override
+            int chooseCell(final int pXMask, final int pOMask, final int pEmptyMask, final Random pRandom)
+            {
+               return Integer.numberOfTrailingZeros(pEmptyMask) + 1;
+            }
+         },
+
+   // Wins if it can, blocks the application if it must, and otherwise chooses at random
+   TACTICAL
+         {
+            @Override
+            int chooseCell(final int pXMask, final int pOMask, final int pEmptyMask, final Random pRandom)
+            {
+               final int winningCell = getCompletingCell(pOMask, pEmptyMask);
+               if (winningCell > 0)
+               {
+                  return winningCell;
+               }
+               final int blockingCell = getCompletingCell(pXMask, pEmptyMask);
+               if (blockingCell > 0)
+               {
+                  return blockingCell;
+               }
+               return getRandomCell(pEmptyMask, pRandom);
+            }
+         };
+
+
+   /**
+    * @param pXMask     the cells selected by X
+    * @param pOMask     the cells selected by O
+    * @param pEmptyMask the empty cells.  Will not be zero
+    * @param pRandom    the source of any random choices
+    * @return the 1-based number of the cell to select
+    */
+   abstract int chooseCell(int pXMask, int pOMask, int pEmptyMask, Random pRandom);
+
+   @Override
+   public IGameMove getNextMove(final IGameBoard pGameBoard, final Random pRandom)
+   {
+      if (!(pGameBoard instanceof TicTacToeBoard))
+      {
+         throw new IllegalArgumentException("given game board is not a ticTacToe board");
+      }
+      final TicTacToeBoard tttBoard = (TicTacToeBoard) pGameBoard;
+      final int xMask = tttBoard.getXMask();
+      final int oMask = tttBoard.getOMask();
+      final int emptyMask = tttBoard.getEmptyMask();
+      if (emptyMask == 0)
+      {
+         return TicTacToeMove.quit();
+      }
+      return TicTacToeMove.of(chooseCell(xMask, oMask, emptyMask, pRandom), CellStatusEnum.O_SELECTED);
+   }
+
+   /**
+    * @param pEmptyMask the empty cells
+    * @param pRandom    the source of the random choice
+    * @return the 1-based number of a randomly chosen empty cell
+    */
+   private static int getRandomCell(final int pEmptyMask, final Random pRandom)
+   {
+      int remainingCells = pEmptyMask;
+      for (int skip = pRandom.nextInt(Integer.bitCount(pEmptyMask)); skip > 0; skip--)
+      {
+         remainingCells &= remainingCells - 1;
+      }
+      return Integer.numberOfTrailingZeros(remainingCells) + 1;
+   }
+
+   /**
+    * @param pOccupancy the cells held by one player
+    * @param pEmptyMask the empty cells
+    * @return the 1-based number of an empty cell that would give the player a winning line, or 0 if there is none
+    */
+   private static int getCompletingCell(final int pOccupancy, final int pEmptyMask)
+   {
+      int remainingCells = pEmptyMask;
+      while (remainingCells != 0)
+      {
+         final int cellBit = Integer.lowestOneBit(remainingCells);
+         if (TicTacToeLookupTables.isWinningOccupancy(pOccupancy | cellBit))
+         {
+            return Integer.numberOfTrailingZeros(cellBit) + 1;
+         }
+         remainingCells &= remainingCells - 1;
+      }
+      return 0;
+   }
+}
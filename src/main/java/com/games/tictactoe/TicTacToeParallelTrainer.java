@@ -0,0 +1,142 @@
+package com.games.tictactoe;
+
+import com.games.GameLoop;
+import com.games.GameStatusInfo;
+import com.games.IGameBoard;
+import com.games.IGameOpponent;
+import com.games.PlayerEnum;
+import com.games.SimulationResults;
+
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Trains the application by playing many games against a scripted opponent, spread across the threads of a
+ * ForkJoinPool, with all of the games feeding one shared knowledge store.
+ * <p>
+ * Games are played in rounds of a fixed size.  Every game in a round makes its decisions against a snapshot of the
+ * knowledge taken at the start of the round, and draws its random choices from a source seeded by the run's seed and
+ * the game's number.  The losses found during a round are merged into the shared store when the round completes.
+ * As such, the outcome of every game, and so the final learned knowledge, depends only on the seed, the game count
+ * and the round size - never on the number of threads, or on how the games were scheduled.
+ */
+public class TicTacToeParallelTrainer
+{
+
+
+   // Used to spread the per-game seeds, so that neighbouring games don't get similar random sequences
+   private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+   private final TicTacToeKnowledgeStore fKnowledgeStore;
+   private final IGameOpponent fOpponent;
+   private final int fThreadCount;
+   private final int fRoundSize;
+
+   /**
+    * @param pGameManager the manager whose knowledge store is trained
+    * @param pOpponent    the opponent that plays in place of the human
+    * @param pThreadCount the number of threads to play games on
+    * @param pRoundSize   the number of games played against each snapshot of the knowledge
+    */
+   public TicTacToeParallelTrainer(final TicTacToeManager pGameManager, final IGameOpponent pOpponent,
+                                   final int pThreadCount, final int pRoundSize)
+   {
+      Objects.requireNonNull(pGameManager, "game manager may not be null");
+      if (pThreadCount < 1)
+      {
+         throw new IllegalArgumentException("thread count must be at least 1. threadCount=" + pThreadCount);
+      }
+      if (pRoundSize < 1)
+      {
+         throw new IllegalArgumentException("round size must be at least 1. roundSize=" + pRoundSize);
+      }
+      fKnowledgeStore = pGameManager.getKnowledgeStore();
+      fOpponent = Objects.requireNonNull(pOpponent, "opponent may not be null");
+      fThreadCount = pThreadCount;
+      fRoundSize = pRoundSize;
+   }
+
+   /**
+    * Play the given number of games, and add every loss to the knowledge store
+    *
+    * @param pGameCount the number of games to play
+    * @param pSeed      the seed for all random choices made during the run
+    * @return a summary of the run.  Will not return null
+    */
+   public SimulationResults train(final int pGameCount, final long pSeed)
+   {
+      if (pGameCount < 0)
+      {
+         throw new IllegalArgumentException("game count may not be negative. gameCount=" + pGameCount);
+      }
+
+      final LongAdder wins = new LongAdder();
+      final LongAdder losses = new LongAdder();
+      final LongAdder ties = new LongAdder();
+      final LongAdder quits = new LongAdder();
+      final TicTacToeMetrics metrics = TicTacToeMetrics.getInstance();
+
+      // Each thread reuses one board, and one source of random choices that is reseeded for every game
+      final ThreadLocal<TicTacToeBoard> boards = ThreadLocal.withInitial(TicTacToeBoard::new);
+      final ThreadLocal<Random> randoms = ThreadLocal.withInitial(Random::new);
+
+      final long startNanos = System.nanoTime();
+      final ForkJoinPool pool = new ForkJoinPool(fThreadCount);
+      try
+      {
+         for (int roundStart = 0; roundStart < pGameCount; roundStart += fRoundSize)
+         {
+            final int roundEnd = Math.min(pGameCount, roundStart + fRoundSize);
+            final TicTacToeManager roundManager = new TicTacToeManager(fKnowledgeStore.snapshot());
+            final TicTacToeKnowledgeStore roundLosses = TicTacToeKnowledgeStore.createInMemory();
+            final BiConsumer<IGameBoard, GameStatusInfo> saveRoundLoss = (gameBoard, gameStatusInfo) ->
+                  roundManager.getMoveToRecord(gameBoard, gameStatusInfo).ifPresent(roundLosses::add);
+
+            final int firstGame = roundStart;
+            pool.submit(() -> IntStream.range(firstGame, roundEnd).parallel().forEach(gameNumber -> {
+               final Random random = randoms.get();
+               random.setSeed(pSeed + gameNumber * SEED_INCREMENT);
+               final GameStatusInfo gameStatusInfo = GameLoop.playOneGame(roundManager, boards.get(), fOpponent,
+                     random, saveRoundLoss);
+               metrics.recordGameOver(gameStatusInfo);
+               switch (gameStatusInfo.getGameStatus())
+               {
+                  case WON:
+                     (gameStatusInfo.getFinalPlayer() == PlayerEnum.APPLICATION ? wins : losses).increment();
+                     break;
+                  case TIE:
+                     ties.increment();
+                     break;
+                  default:
+                     quits.increment();
+                     break;
+               }
+            })).get();
+
+            fKnowledgeStore.addAll(roundLosses);
+         }
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException("training was interrupted", e);
+      }
+      catch (ExecutionException e)
+      {
+         throw new IllegalStateException("training failed", e.getCause());
+      }
+      finally
+      {
+         pool.shutdown();
+      }
+      final long elapsedNanos = System.nanoTime() - startNanos;
+
+      return new SimulationResults(pGameCount, wins.intValue(), losses.intValue(), ties.intValue(), quits.intValue(),
+            elapsedNanos, fKnowledgeStore.size());
+   }
+}
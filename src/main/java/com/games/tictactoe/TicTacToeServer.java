@@ -0,0 +1,457 @@
+package com.games.tictactoe;
+
+import com.games.GameLoop;
+import com.games.GameStatusInfo;
+import com.games.IGameBoard;
+import com.games.IGameMove;
+import com.games.IGameOpponent;
+import com.games.InputParsingHelper;
+import com.games.RenderingHelper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves TicTacToe games over TCP on localhost, using a simple line protocol, with many sessions at the same time.
+ * <p>
+ * Each connection is a session, which may play any number of games, one after another.  Every session runs on its own
+ * thread, and all of the sessions share one manager, and so one knowledge store: a loss in one session protects all
+ * of the others from the very next move.
+ * <p>
+ * Java 8 has no virtual threads, so every session holds a platform thread for as long as it's open.  To keep that
+ * bounded, at most a given number of sessions (DEFAULT_MAX_SESSIONS, unless another is given) are open at once.  A
+ * connection made while that many are open is refused straight away: it's sent an ERROR line and BYE, and closed.
+ * Threads are reused by later sessions, and let go once they've been idle for a while.
+ * <p>
+ * The protocol is made up of lines of ASCII text.  The server sends:
+ * <pre>
+ *    WELCOME tictactoe            once, when the session starts
+ *    BOARD &lt;9 characters&gt;        the board, cells 1 to 9, each 'X' (the application), 'O' (the client) or '.'
+ *    YOUR_MOVE                    the client should send a move
+ *    ERROR &lt;message&gt;              the last line from the client was not accepted, or the server is full
+ *    OVER &lt;status&gt; &lt;player&gt;      the game is over: WON, TIE or QUIT, and the player who made the final move,
+ *                                 APPLICATION or HUMAN.  The client should send NEW or BYE
+ *    BYE                          the session is over
+ * </pre>
+ * And the client sends:
+ * <pre>
+ *    MOVE &lt;row&gt; &lt;column&gt;         a move, with the row and column each from 1 to 3
+ *    QUIT                         give up the current game
+ *    NEW                          start another game, once a game is over
+ *    BYE                          end the session
+ * </pre>
+ * The application always moves first, as it does in the console game.
+ */
+public class TicTacToeServer
+      implements Closeable
+{
+
+
+   private static final String GAME_NAME = "tictactoe";
+   private static final int CONNECTION_BACKLOG = 1024;
+   private static final String MOVE_COMMAND = "MOVE";
+
+   // The most sessions open at once, unless another limit is given; each one holds a thread
+   public static final int DEFAULT_MAX_SESSIONS = 256;
+
+   // A session thread that has had nothing to do for this long is let go
+   private static final long IDLE_THREAD_KEEP_ALIVE_SECONDS = 60;
+
+   // A session that hears nothing from its client for this long is closed, so that abandoned sessions don't hold on
+   // to a thread forever
+   private static final int SESSION_IDLE_TIMEOUT_MILLIS = 10 * 60 * 1000;
+
+   private final TicTacToeManager fGameManager;
+   private final ServerSocket fServerSocket;
+
+   // Java 8 has no virtual threads, so each session gets a pooled platform thread, which is reused once the session
+   // ends.  The pool never grows past the session limit, and has no queue, so a session is refused when it's full
+   private final ExecutorService fSessionPool;
+
+   private final Set<Socket> fOpenSockets = ConcurrentHashMap.newKeySet();
+
+   /**
+    * Bind the server to the given port on the loopback address, allowing DEFAULT_MAX_SESSIONS sessions at once; the
+    * server doesn't accept connections until serve() is called
+    *
+    * @param pGameManager the manager shared by all sessions
+    * @param pPort        the port to listen on, or 0 for any free port
+    * @throws IOException if the port could not be bound
+    */
+   public TicTacToeServer(final TicTacToeManager pGameManager, final int pPort) throws IOException
+   {
+      this(pGameManager, pPort, DEFAULT_MAX_SESSIONS);
+   }
+
+   /**
+    * Bind the server to the given port on the loopback address; the server doesn't accept connections until serve() is
+    * called
+    *
+    * @param pGameManager the manager shared by all sessions
+    * @param pPort        the port to listen on, or 0 for any free port
+    * @param pMaxSessions the most sessions to have open at once, and so the most threads to play them on
+    * @throws IOException if the port could not be bound
+    */
+   public TicTacToeServer(final TicTacToeManager pGameManager, final int pPort, final int pMaxSessions) throws IOException
+   {
+      fGameManager = Objects.requireNonNull(pGameManager, "game manager may not be null");
+      if (pMaxSessions < 1)
+      {
+         throw new IllegalArgumentException("max sessions must be at least 1. maxSessions=" + pMaxSessions);
+      }
+      fServerSocket = new ServerSocket(pPort, CONNECTION_BACKLOG, InetAddress.getLoopbackAddress());
+
+      final AtomicInteger sessionThreadCount = new AtomicInteger();
+      fSessionPool = new ThreadPoolExecutor(0, pMaxSessions, IDLE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), runnable -> {
+         final Thread thread = new Thread(runnable, "ttt-session-" + sessionThreadCount.incrementAndGet());
+         thread.setDaemon(true);
+         return thread;
+      });
+   }
+
+   /**
+    * @return the port that the server is listening on
+    */
+   public int getPort()
+   {
+      return fServerSocket.getLocalPort();
+   }
+
+   /**
+    * Accept connections, starting a session for each one, or refusing it if too many sessions are open, until the
+    * server is closed
+    *
+    * @throws IOException if connections could not be accepted
+    */
+   public void serve() throws IOException
+   {
+      while (!fServerSocket.isClosed())
+      {
+         final Socket socket;
+         try
+         {
+            socket = fServerSocket.accept();
+         }
+         catch (SocketException e)
+         {
+            if (fServerSocket.isClosed())
+            {
+               return;
+            }
+            throw e;
+         }
+         fOpenSockets.add(socket);
+         try
+         {
+            fSessionPool.execute(() -> runSession(socket));
+         }
+         catch (RejectedExecutionException e)
+         {
+            fOpenSockets.remove(socket);
+            refuseSession(socket);
+         }
+      }
+   }
+
+   /**
+    * Tell the client on the other end of the given socket that the server is full, and close the connection
+    *
+    * @param pSocket the connection to the client
+    */
+   private static void refuseSession(final Socket pSocket)
+   {
+      try (
+            final Socket socket = pSocket;
+            Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))
+      {
+         sendLine(out, "ERROR the server is full; try again later");
+         sendLine(out, "BYE");
+      }
+      catch (IOException e)
+      {
+         // The client has already gone; there's nobody left to tell
+      }
+   }
+
+   /**
+    * Stop accepting connections, and close every session that is still open
+    *
+    * @throws IOException if the server socket could not be closed
+    */
+   @Override
+   public void close() throws IOException
+   {
+      fServerSocket.close();
+      fSessionPool.shutdown();
+      for (Socket socket : fOpenSockets)
+      {
+         try
+         {
+            socket.close();
+         }
+         catch (IOException e)
+         {
+            RenderingHelper.renderLoggingLine("close: problem closing a session. e=" + e);
+         }
+      }
+   }
+
+   /**
+    * Play games with the client on the other end of the given socket, until it says BYE or goes away
+    *
+    * @param pSocket the connection to the client
+    */
+   private void runSession(final Socket pSocket)
+   {
+      try (
+            final Socket socket = pSocket;
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)))
+      {
+         socket.setSoTimeout(SESSION_IDLE_TIMEOUT_MILLIS);
+         sendLine(out, "WELCOME " + GAME_NAME);
+
+         // One board is used for every game in the session, and reset between them
+         final TicTacToeBoard board = new TicTacToeBoard();
+         final ClientOpponent client = new ClientOpponent(in, out);
+         boolean isStillPlayingAdditionalGames = true;
+         while (isStillPlayingAdditionalGames)
+         {
+            isStillPlayingAdditionalGames = playOneGame(client, board) && isNewGameRequested(in, out);
+         }
+         sendLine(out, "BYE");
+         out.flush();
+      }
+      catch (IOException e)
+      {
+         // The client went away, or was idle for too long; there's nobody left to tell
+      }
+      finally
+      {
+         fOpenSockets.remove(pSocket);
+      }
+   }
+
+   /**
+    * @param pClient the client, which plays in place of the human
+    * @param pBoard  the board to play on; reset before the game starts
+    * @return true if the game was played to the end, and false if the client left part-way through
+    * @throws IOException if the client could not be reached
+    */
+   private boolean playOneGame(final ClientOpponent pClient, final TicTacToeBoard pBoard) throws IOException
+   {
+      final GameStatusInfo gameStatusInfo;
+      try
+      {
+         // The shared store is updated before the client hears the result, so the next game anywhere benefits
+         gameStatusInfo = GameLoop.playOneGame(fGameManager, pBoard, pClient, ThreadLocalRandom.current(),
+               fGameManager::saveResults);
+      }
+      catch (UncheckedIOException e)
+      {
+         throw e.getCause();
+      }
+      if (pClient.isGone())
+      {
+         return false;
+      }
+      sendBoard(pClient.fOut, pBoard);
+      sendLine(pClient.fOut, "OVER " + gameStatusInfo.getGameStatus() + " " + gameStatusInfo.getFinalPlayer());
+      pClient.fOut.flush();
+      return true;
+   }
+
+   /**
+    * @param pIn  the lines from the client
+    * @param pOut the lines to the client
+    * @return true if the client wants another game, and false if it has left
+    * @throws IOException if the client could not be reached
+    */
+   private boolean isNewGameRequested(final BufferedReader pIn, final Writer pOut) throws IOException
+   {
+      while (true)
+      {
+         final String inputLine = pIn.readLine();
+         if (inputLine == null || "BYE".equalsIgnoreCase(inputLine.trim()))
+         {
+            return false;
+         }
+         if ("NEW".equalsIgnoreCase(inputLine.trim()))
+         {
+            return true;
+         }
+         sendLine(pOut, "ERROR the game is over; expected NEW or BYE");
+         pOut.flush();
+      }
+   }
+
+   /**
+    * @param pOut   the lines to the client
+    * @param pBoard the board to send
+    * @throws IOException if the client could not be reached
+    */
+   private static void sendBoard(final Writer pOut, final TicTacToeBoard pBoard) throws IOException
+   {
+      final StringBuilder sb = new StringBuilder("BOARD ");
+      for (int cellNumber = 1; cellNumber <= TicTacToeLookupTables.MAX_CELLS; cellNumber++)
+      {
+         final CellStatusEnum cellStatus = pBoard.getCellStatus(cellNumber);
+         sb.append(cellStatus == CellStatusEnum.UNSELECTED ? "." : cellStatus.getRenderingValue());
+      }
+      sendLine(pOut, sb.toString());
+   }
+
+   /**
+    * @param pOut  the lines to the client
+    * @param pLine the line to send; it's not flushed
+    * @throws IOException if the client could not be reached
+    */
+   private static void sendLine(final Writer pOut, final String pLine) throws IOException
+   {
+      pOut.write(pLine);
+      pOut.write("\n");
+   }
+
+   /**
+    * The client at the other end of a session, which plays in place of the human.  If the client leaves part-way
+    * through a game, its move is to quit, and it's marked as gone.
+    */
+   private static final class ClientOpponent
+         implements IGameOpponent
+   {
+      private final BufferedReader fIn;
+      private final Writer fOut;
+
+      // Reused for each move, to hold the row and column as they're parsed; one more slot than needed, so that a
+      // third number is noticed
+      private final int[] fNumbers = new int[3];
+
+      private boolean fIsGone;
+
+      /**
+       * @param pIn  the lines from the client
+       * @param pOut the lines to the client
+       */
+      ClientOpponent(final BufferedReader pIn, final Writer pOut)
+      {
+         fIn = pIn;
+         fOut = pOut;
+      }
+
+      /**
+       * @return true if the client has said BYE or gone away
+       */
+      boolean isGone()
+      {
+         return fIsGone;
+      }
+
+      /**
+       * Show the client the board and ask for a move, until the client sends an acceptable one
+       *
+       * @param pGameBoard the board to move on
+       * @param pRandom    not used; the client makes its own choices
+       * @return the client's move, which might be a "Quit" move.  Will not return null
+       * @throws UncheckedIOException if the client could not be reached
+       */
+      @Override
+      public IGameMove getNextMove(final IGameBoard pGameBoard, final Random pRandom)
+      {
+         if (!(pGameBoard instanceof TicTacToeBoard))
+         {
+            throw new IllegalArgumentException("given game board is not a ticTacToe board");
+         }
+         try
+         {
+            final IGameMove returnVal = getGameMoveFromClient((TicTacToeBoard) pGameBoard);
+            if (returnVal == null)
+            {
+               fIsGone = true;
+               return TicTacToeMove.quit();
+            }
+            return returnVal;
+         }
+         catch (IOException e)
+         {
+            throw new UncheckedIOException(e);
+         }
+      }
+
+      /**
+       * @param pBoard the board to move on
+       * @return the client's move, which might be a "Quit" move, or null if the client has left
+       * @throws IOException if the client could not be reached
+       */
+      private IGameMove getGameMoveFromClient(final TicTacToeBoard pBoard) throws IOException
+      {
+         sendBoard(fOut, pBoard);
+         while (true)
+         {
+            sendLine(fOut, "YOUR_MOVE");
+            fOut.flush();
+
+            final String inputLine = fIn.readLine();
+            final String command = inputLine == null ? null : inputLine.trim();
+            if (command == null || "BYE".equalsIgnoreCase(command))
+            {
+               return null;
+            }
+            if ("QUIT".equalsIgnoreCase(command))
+            {
+               return TicTacToeMove.quit();
+            }
+
+            final boolean isMoveCommand = command.regionMatches(true, 0, MOVE_COMMAND, 0, MOVE_COMMAND.length())
+                  && (command.length() == MOVE_COMMAND.length() || Character.isWhitespace(command.charAt(MOVE_COMMAND.length())));
+            final int numberCount = isMoveCommand ? InputParsingHelper.parseNumbers(command, MOVE_COMMAND.length(), fNumbers) : 0;
+            if (numberCount < 0)
+            {
+               sendLine(fOut, "ERROR row and column must be numbers");
+               continue;
+            }
+            if (numberCount != 2)
+            {
+               sendLine(fOut, "ERROR expected MOVE <row> <column>, QUIT or BYE");
+               continue;
+            }
+            final int row = fNumbers[0];
+            final int column = fNumbers[1];
+            if (row < 1 || row > 3 || column < 1 || column > 3)
+            {
+               sendLine(fOut, "ERROR row and column must each be from 1 to 3");
+               continue;
+            }
+            final int cellNumber = (row - 1) * 3 + column;
+            if (pBoard.getCellStatus(cellNumber) != CellStatusEnum.UNSELECTED)
+            {
+               sendLine(fOut, "ERROR that cell is already taken");
+               continue;
+            }
+            return TicTacToeMove.of(cellNumber, CellStatusEnum.O_SELECTED);
+         }
+      }
+   }
+}
@@ -0,0 +1,183 @@
+package com.games.tictactoe;
+
+/**
+ * Perfect play for TicTacToe, worked out once per JVM and then answered with a single array load.
+ * <p>
+ * The whole game is solved the first time this class is used, by a negamax search with alpha-beta pruning from every
+ * reachable position.  A transposition table keyed by canonical position index (see TicTacToeSymmetry) holds the
+ * value of each position searched, so that the 8 variants of a position are only searched once between them.  The
+ * best cells for every position are then kept in a table indexed by position index, so that choosing a move never
+ * searches at all.
+ * <p>
+ * Values are from the point of view of the player to move: 0 for a tie, or, for a win or a loss, one more than the
+ * number of cells left empty at the end, so that quicker wins (and slower losses) are preferred.
+ */
+final class TicTacToeSolver
+{
+
+
+   private static final int FULL_BOARD_MASK = TicTacToeLookupTables.OCCUPANCY_COUNT - 1;
+
+   // Greater than the value of any position
+   private static final int INFINITE_VALUE = TicTacToeLookupTables.MAX_CELLS + 1;
+
+   // What a transposition table entry says about the value it holds; 0 until the position has been searched
+   private static final byte BOUND_EXACT = 1;
+   private static final byte BOUND_LOWER = 2;
+   private static final byte BOUND_UPPER = 3;
+
+   // Indexed by canonical position index; only used while the best cells are worked out
+   private static final byte[] TRANSPOSITION_VALUES = new byte[TicTacToeLookupTables.POSITION_COUNT];
+   private static final byte[] TRANSPOSITION_BOUNDS = new byte[TicTacToeLookupTables.POSITION_COUNT];
+
+   // Indexed by position index; a mask of the best cells for the player to move, or 0 if the game is over or can't be
+   // reached
+   private static final short[] BEST_CELL_MASKS = new short[TicTacToeLookupTables.POSITION_COUNT];
+
+   static
+   {
+      fillBestCells(0, 0, new boolean[TicTacToeLookupTables.POSITION_COUNT]);
+   }
+
+   private TicTacToeSolver()
+   {
+      // static tables only
+   }
+
+   /**
+    * Of the cells that are equally good, the lowest-numbered is chosen.
+    *
+    * @param pPositionIndex the position index of a board where the game is still on
+    * @return the 1-based number of the best cell for the player to move
+    */
+   static int getBestCell(final int pPositionIndex)
+   {
+      return Integer.numberOfTrailingZeros(BEST_CELL_MASKS[pPositionIndex]) + 1;
+   }
+
+   /**
+    * @param pPositionIndex a position index
+    * @return a mask of the cells that are equally best for the player to move, with cell number n held in bit (n - 1),
+    * or 0 if the game is over at the given position, or it can't be reached in a game
+    */
+   static int getBestCellMask(final int pPositionIndex)
+   {
+      return BEST_CELL_MASKS[pPositionIndex];
+   }
+
+   /**
+    * Record the best cells for the given position, and every position reachable from it
+    *
+    * @param pXMask   the occupancy mask of the cells holding an X
+    * @param pOMask   the occupancy mask of the cells holding an O
+    * @param pVisited indexed by position index; true for the positions already filled in
+    */
+   private static void fillBestCells(final int pXMask, final int pOMask, final boolean[] pVisited)
+   {
+      final int positionIndex = TicTacToeLookupTables.getPositionIndex(pXMask, pOMask);
+      if (pVisited[positionIndex])
+      {
+         return;
+      }
+      pVisited[positionIndex] = true;
+      if (TicTacToeLookupTables.isWinningOccupancy(pXMask) || TicTacToeLookupTables.isWinningOccupancy(pOMask))
+      {
+         return;
+      }
+
+      final boolean isXToMove = Integer.bitCount(pXMask) == Integer.bitCount(pOMask);
+      int bestValue = -INFINITE_VALUE;
+      for (int emptyCells = ~(pXMask | pOMask) & FULL_BOARD_MASK; emptyCells != 0; emptyCells &= emptyCells - 1)
+      {
+         final int cellBit = Integer.lowestOneBit(emptyCells);
+         final int childXMask = isXToMove ? pXMask | cellBit : pXMask;
+         final int childOMask = isXToMove ? pOMask : pOMask | cellBit;
+         final int value = -negamax(childXMask, childOMask, -INFINITE_VALUE, INFINITE_VALUE);
+         if (value > bestValue)
+         {
+            bestValue = value;
+            BEST_CELL_MASKS[positionIndex] = (short) cellBit;
+         }
+         else if (value == bestValue)
+         {
+            BEST_CELL_MASKS[positionIndex] |= cellBit;
+         }
+         fillBestCells(childXMask, childOMask, pVisited);
+      }
+   }
+
+   /**
+    * @param pXMask the occupancy mask of the cells holding an X
+    * @param pOMask the occupancy mask of the cells holding an O
+    * @param pAlpha the value that the player to move is already sure of
+    * @param pBeta  the value past which the opponent won't let the game get here
+    * @return the value of the position for the player to move; exact if it lies between pAlpha and pBeta, and
+    * otherwise a bound on the side that it lies
+    */
+   private static int negamax(final int pXMask, final int pOMask, final int pAlpha, final int pBeta)
+   {
+      final boolean isXToMove = Integer.bitCount(pXMask) == Integer.bitCount(pOMask);
+      final int emptyCells = ~(pXMask | pOMask) & FULL_BOARD_MASK;
+
+      // Only the player who just moved can have won
+      if (TicTacToeLookupTables.isWinningOccupancy(isXToMove ? pOMask : pXMask))
+      {
+         return -(Integer.bitCount(emptyCells) + 1);
+      }
+      if (emptyCells == 0)
+      {
+         return 0;
+      }
+
+      int alpha = pAlpha;
+      int beta = pBeta;
+      final int key = TicTacToeSymmetry.getCanonicalPositionIndex(pXMask, pOMask);
+      final int storedValue = TRANSPOSITION_VALUES[key];
+      switch (TRANSPOSITION_BOUNDS[key])
+      {
+         case BOUND_EXACT:
+            return storedValue;
+         case BOUND_LOWER:
+            alpha = Math.max(alpha, storedValue);
+            break;
+         case BOUND_UPPER:
+            beta = Math.min(beta, storedValue);
+            break;
+         default:
+            break;
+      }
+      if (alpha >= beta)
+      {
+         return storedValue;
+      }
+
+      final int originalAlpha = alpha;
+      int bestValue = -INFINITE_VALUE;
+      for (int remainingCells = emptyCells; remainingCells != 0 && alpha < beta; remainingCells &= remainingCells - 1)
+      {
+         final int cellBit = Integer.lowestOneBit(remainingCells);
+         final int value = isXToMove
+               ? -negamax(pXMask | cellBit, pOMask, -beta, -alpha)
+               : -negamax(pXMask, pOMask | cellBit, -beta, -alpha);
+         bestValue = Math.max(bestValue, value);
+         alpha = Math.max(alpha, value);
+      }
+
+      final byte bound;
+      if (bestValue <= originalAlpha)
+      {
+         bound = BOUND_UPPER;
+      }
+      else if (bestValue >= beta)
+      {
+         bound = BOUND_LOWER;
+      }
+      else
+      {
+         bound = BOUND_EXACT;
+      }
+      TRANSPOSITION_VALUES[key] = (byte) bestValue;
+      TRANSPOSITION_BOUNDS[key] = bound;
+      return bestValue;
+   }
+}
@@ -0,0 +1,38 @@
+package com.games.tictactoe;
+
+import java.util.Objects;
+
+/**
+ * The ways in which the application can choose its moves
+ */
+public enum TicTacToeStrategyEnum
+{
+
+   // Avoids the moves that have lost before, and quits once every move has been shown to lose
+   LEARNING,
+
+   // Plays perfectly from the very first game, using moves worked out at startup (see TicTacToeSolver)
+   SOLVER,
+
+   // Plays perfectly from the very first game, using moves worked out when the application was built (see
+   // TicTacToeOpeningBook)
+   OPENING_BOOK;
+
+   /**
+    * @param pStrategyName the name of a strategy, in any case
+    * @return the strategy with the given name.  Will not return null
+    * @throws IllegalArgumentException if there is no strategy with the given name
+    */
+   public static TicTacToeStrategyEnum forName(final String pStrategyName)
+   {
+      Objects.requireNonNull(pStrategyName, "strategy name may not be null");
+      for (TicTacToeStrategyEnum strategy : values())
+      {
+         if (strategy.name().equalsIgnoreCase(pStrategyName.trim()))
+         {
+            return strategy;
+         }
+      }
+      throw new IllegalArgumentException("no strategy with the given name. strategyName=" + pStrategyName);
+   }
+}
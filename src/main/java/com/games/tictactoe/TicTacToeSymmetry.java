@@ -0,0 +1,224 @@
+package com.games.tictactoe;
+
+/**
+ * The 8 symmetries of the TicTacToe board (4 rotations, and flips on 4 axes), and the canonical form of a move
+ * sequence under them.
+ * <p>
+ * Two move sequences are functionally equivalent if one can be turned into the other by rotating or flipping the board.
+ * Of all the equivalent sequences, the canonical one is the one that comes first in lexicographic order, so the
+ * knowledge only ever needs to hold that one representative, rather than all 8 variants.
+ * <p>
+ * Positions are folded together in the same way: the canonical position index of a board is the smallest position
+ * index of any of its 8 variants.
+ */
+final class TicTacToeSymmetry
+{
+
+
+   /*
+      Each permutation is indexed by a 1-based cell number (index 0 is unused), and gives the cell that it moves to:
+
+         1 2 3
+         4 5 6
+         7 8 9
+    */
+   private static final int[][] PERMUTATIONS = {
+         // identity
+         {0, 1, 2, 3, 4, 5, 6, 7, 8, 9},
+         // Rotate
+         {0, 3, 6, 9, 2, 5, 8, 1, 4, 7},
+         {0, 9, 8, 7, 6, 5, 4, 3, 2, 1},
+         {0, 7, 4, 1, 8, 5, 2, 9, 6, 3},
+         // Flip on an axis: horizontal, vertical, forward diagonal, and backwards diagonal
+         {0, 7, 8, 9, 4, 5, 6, 1, 2, 3},
+         {0, 3, 2, 1, 6, 5, 4, 9, 8, 7},
+         {0, 9, 6, 3, 8, 5, 2, 7, 4, 1},
+         {0, 1, 4, 7, 2, 5, 8, 3, 6, 9}
+   };
+
+   static final int SYMMETRY_COUNT = PERMUTATIONS.length;
+
+   // A mask with one bit set for each symmetry
+   static final int ALL_SYMMETRIES = (1 << SYMMETRY_COUNT) - 1;
+
+   /*
+      Step tables for building canonical sequences one move at a time, each indexed by
+      (candidateSymmetries * CELL_SLOTS + cellNumber).  Of the given candidate symmetries:
+      - CANONICAL_CELL gives the smallest cell that any of them moves the given cell to
+      - REMAINING_SYMMETRIES gives the ones that move the given cell to that smallest cell
+    */
+   private static final int CELL_SLOTS = TicTacToeLookupTables.MAX_CELLS + 1;
+   private static final byte[] CANONICAL_CELL = new byte[(ALL_SYMMETRIES + 1) * CELL_SLOTS];
+   private static final short[] REMAINING_SYMMETRIES = new short[(ALL_SYMMETRIES + 1) * CELL_SLOTS];
+
+   // Indexed by (symmetry * OCCUPANCY_COUNT + occupancy); the occupancy mask that the symmetry moves the given one to
+   private static final short[] PERMUTED_OCCUPANCY = new short[SYMMETRY_COUNT * TicTacToeLookupTables.OCCUPANCY_COUNT];
+
+   // Indexed by symmetry; the symmetry that undoes it
+   private static final int[] INVERSE_SYMMETRIES = new int[SYMMETRY_COUNT];
+
+   static
+   {
+      for (int symmetry = 0; symmetry < SYMMETRY_COUNT; symmetry++)
+      {
+         // A symmetry is fixed by where it moves a corner, and a side next to that corner
+         for (int inverse = 0; inverse < SYMMETRY_COUNT; inverse++)
+         {
+            if (PERMUTATIONS[inverse][PERMUTATIONS[symmetry][1]] == 1 && PERMUTATIONS[inverse][PERMUTATIONS[symmetry][2]] == 2)
+            {
+               INVERSE_SYMMETRIES[symmetry] = inverse;
+            }
+         }
+
+         for (int occupancy = 0; occupancy < TicTacToeLookupTables.OCCUPANCY_COUNT; occupancy++)
+         {
+            int permutedOccupancy = 0;
+            for (int cellNumber = 1; cellNumber < CELL_SLOTS; cellNumber++)
+            {
+               if ((occupancy & (1 << (cellNumber - 1))) != 0)
+               {
+                  permutedOccupancy |= 1 << (PERMUTATIONS[symmetry][cellNumber] - 1);
+               }
+            }
+            PERMUTED_OCCUPANCY[symmetry * TicTacToeLookupTables.OCCUPANCY_COUNT + occupancy] = (short) permutedOccupancy;
+         }
+      }
+
+      for (int candidateSymmetries = 1; candidateSymmetries <= ALL_SYMMETRIES; candidateSymmetries++)
+      {
+         for (int cellNumber = 1; cellNumber < CELL_SLOTS; cellNumber++)
+         {
+            int smallestCell = Integer.MAX_VALUE;
+            int smallestSymmetries = 0;
+            for (int symmetry = 0; symmetry < SYMMETRY_COUNT; symmetry++)
+            {
+               if ((candidateSymmetries & (1 << symmetry)) == 0)
+               {
+                  continue;
+               }
+               final int transformedCell = PERMUTATIONS[symmetry][cellNumber];
+               if (transformedCell < smallestCell)
+               {
+                  smallestCell = transformedCell;
+                  smallestSymmetries = 1 << symmetry;
+               }
+               else if (transformedCell == smallestCell)
+               {
+                  smallestSymmetries |= 1 << symmetry;
+               }
+            }
+            CANONICAL_CELL[candidateSymmetries * CELL_SLOTS + cellNumber] = (byte) smallestCell;
+            REMAINING_SYMMETRIES[candidateSymmetries * CELL_SLOTS + cellNumber] = (short) smallestSymmetries;
+         }
+      }
+   }
+
+   private TicTacToeSymmetry()
+   {
+      // static tables only
+   }
+
+   /**
+    * @param pCandidateSymmetries a mask of the symmetries that produced the canonical sequence so far; never 0
+    * @param pCellNumber          the 1-based cell number of the next move
+    * @return the next move of the canonical sequence
+    */
+   static int getCanonicalCell(final int pCandidateSymmetries, final int pCellNumber)
+   {
+      return CANONICAL_CELL[pCandidateSymmetries * CELL_SLOTS + pCellNumber];
+   }
+
+   /**
+    * @param pCandidateSymmetries a mask of the symmetries that produced the canonical sequence so far; never 0
+    * @param pCellNumber          the 1-based cell number of the next move
+    * @return a mask of the symmetries that still produce the canonical sequence, once the given move is added
+    */
+   static int getRemainingSymmetries(final int pCandidateSymmetries, final int pCellNumber)
+   {
+      return REMAINING_SYMMETRIES[pCandidateSymmetries * CELL_SLOTS + pCellNumber];
+   }
+
+   /**
+    * @param pXMask the occupancy mask of the cells holding an X
+    * @param pOMask the occupancy mask of the cells holding an O
+    * @return the smallest position index of the 8 variants of the given board
+    */
+   static int getCanonicalPositionIndex(final int pXMask, final int pOMask)
+   {
+      final int symmetry = getCanonicalSymmetry(pXMask, pOMask);
+      return TicTacToeLookupTables.getPositionIndex(permuteOccupancy(symmetry, pXMask), permuteOccupancy(symmetry, pOMask));
+   }
+
+   /**
+    * @param pXMask the occupancy mask of the cells holding an X
+    * @param pOMask the occupancy mask of the cells holding an O
+    * @return a symmetry that moves the given board to its canonical position.  If the board is itself symmetric,
+    * more than one does, and the first of them is returned
+    */
+   static int getCanonicalSymmetry(final int pXMask, final int pOMask)
+   {
+      int returnVal = 0;
+      int smallestPositionIndex = Integer.MAX_VALUE;
+      for (int symmetry = 0; symmetry < SYMMETRY_COUNT; symmetry++)
+      {
+         final int positionIndex = TicTacToeLookupTables.getPositionIndex(permuteOccupancy(symmetry, pXMask),
+               permuteOccupancy(symmetry, pOMask));
+         if (positionIndex < smallestPositionIndex)
+         {
+            smallestPositionIndex = positionIndex;
+            returnVal = symmetry;
+         }
+      }
+      return returnVal;
+   }
+
+   /**
+    * @param pSymmetry   a symmetry, from 0 to SYMMETRY_COUNT - 1
+    * @param pCellNumber a 1-based cell number
+    * @return the cell that the given symmetry moves the given cell to
+    */
+   static int getSymmetricCell(final int pSymmetry, final int pCellNumber)
+   {
+      return PERMUTATIONS[pSymmetry][pCellNumber];
+   }
+
+   /**
+    * @param pSymmetry  a symmetry, from 0 to SYMMETRY_COUNT - 1
+    * @param pOccupancy an occupancy mask, with cell number n held in bit (n - 1)
+    * @return the mask that the given symmetry moves the given one to
+    */
+   static int permuteOccupancy(final int pSymmetry, final int pOccupancy)
+   {
+      return PERMUTED_OCCUPANCY[pSymmetry * TicTacToeLookupTables.OCCUPANCY_COUNT + pOccupancy];
+   }
+
+   /**
+    * @param pSymmetry a symmetry, from 0 to SYMMETRY_COUNT - 1
+    * @return the symmetry that undoes it
+    */
+   static int getInverseSymmetry(final int pSymmetry)
+   {
+      return INVERSE_SYMMETRIES[pSymmetry];
+   }
+
+   /**
+    * The canonical form is built one move at a time: at each step, only the symmetries that produced the smallest
+    * sequence so far are still candidates, and the smallest of their transformed moves is the next canonical move.
+    *
+    * @param pSequence a packed move sequence, as described in TicTacToeMoveSequence
+    * @return the lexicographically smallest of the 8 variants of the given sequence, also packed
+    */
+   static long canonicalize(final long pSequence)
+   {
+      final int length = TicTacToeMoveSequence.length(pSequence);
+      long canonicalSequence = TicTacToeMoveSequence.EMPTY;
+      int candidateSymmetries = ALL_SYMMETRIES;
+      for (int i = 0; i < length; i++)
+      {
+         final int cellNumber = TicTacToeMoveSequence.moveAt(pSequence, i);
+         canonicalSequence = TicTacToeMoveSequence.append(canonicalSequence, getCanonicalCell(candidateSymmetries, cellNumber));
+         candidateSymmetries = getRemainingSymmetries(candidateSymmetries, cellNumber);
+      }
+      return canonicalSequence;
+   }
+}
@@ -0,0 +1,240 @@
+package com.games.tictactoe;
+
+import com.games.RenderingHelper;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes the verbose log on a background thread, so that formatting its lines and writing them to the disk never
+ * holds up a game.
+ * <p>
+ * Work is handed to the writer through a bounded queue.  If appends arrive faster than the disk can take them and the
+ * queue fills up, further appends are dropped rather than waited for: the verbose log is only there for people to
+ * read, and the next rewrite (when the logs are compacted, or on export) brings it back up to date.  Rewrites are
+ * never dropped.
+ * <p>
+ * Each line looks like this: (2,2)-(2,3)-(1,1)-(3,3)-(3,1)-(3,2), with the row and then the column of each move.
+ */
+final class TicTacToeVerboseLogWriter
+{
+
+
+   private static final int QUEUE_CAPACITY = 1024;
+
+   // How long to wait at shutdown for queued lines to be written
+   private static final long SHUTDOWN_WAIT_SECONDS = 10;
+
+   private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+   private final File fFile;
+   private final BlockingQueue<Runnable> fQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+   private final AtomicLong fDroppedLineCount = new AtomicLong();
+
+   // The writer thread is only started once there's something to write, so that loading the knowledge costs nothing
+   private boolean fStarted;
+
+   /**
+    * @param pFile the verbose log to write to
+    */
+   TicTacToeVerboseLogWriter(final File pFile)
+   {
+      fFile = pFile;
+   }
+
+   /**
+    * Queue a line to be appended to the verbose log, unless the queue is full.  Never blocks
+    *
+    * @param pSequence the packed sequence to append
+    */
+   void append(final long pSequence)
+   {
+      ensureStarted();
+      if (!fQueue.offer(() -> appendLine(pSequence)) && fDroppedLineCount.getAndIncrement() == 0)
+      {
+         RenderingHelper.renderLoggingLine("append: verbose log is behind; dropping lines until it is next rewritten");
+      }
+   }
+
+   /**
+    * Queue a rewrite of the whole verbose log, waiting for room in the queue if need be
+    *
+    * @param pSortedEntries the packed sequences to write, in the order to write them
+    */
+   void rewrite(final long[] pSortedEntries)
+   {
+      ensureStarted();
+      try
+      {
+         fQueue.put(() -> rewriteFile(pSortedEntries));
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         RenderingHelper.renderLoggingLine("rewrite: interrupted before the verbose log could be rewritten");
+      }
+   }
+
+   /**
+    * Wait for everything queued so far to be written, for up to a few seconds
+    */
+   void flush()
+   {
+      synchronized (this)
+      {
+         if (!fStarted)
+         {
+            return;
+         }
+      }
+      final CountDownLatch latch = new CountDownLatch(1);
+      try
+      {
+         if (fQueue.offer(latch::countDown, SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS))
+         {
+            latch.await(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+         }
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   /**
+    * Start the writer thread, if it isn't already running
+    */
+   private synchronized void ensureStarted()
+   {
+      if (fStarted)
+      {
+         return;
+      }
+      fStarted = true;
+
+      final Thread writerThread = new Thread(this::writeQueuedLines, "ttt-verbose-log-writer");
+      writerThread.setDaemon(true);
+      writerThread.start();
+
+      // The writer thread won't keep the JVM alive, so give it a chance to catch up on the way out
+      Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "ttt-verbose-log-flush"));
+   }
+
+   /**
+    * The body of the writer thread, which runs until the JVM exits
+    */
+   private void writeQueuedLines()
+   {
+      while (true)
+      {
+         try
+         {
+            fQueue.take().run();
+         }
+         catch (InterruptedException e)
+         {
+            return;
+         }
+         catch (RuntimeException e)
+         {
+            RenderingHelper.renderLoggingLine("writeQueuedLines: problem writing. e=" + e);
+         }
+      }
+   }
+
+   /**
+    * @param pSequence the packed sequence to append
+    */
+   private void appendLine(final long pSequence)
+   {
+      final StringBuilder sb = new StringBuilder();
+      appendVerboseRepresentation(sb, pSequence);
+      sb.append('\n');
+      try (final FileOutputStream out = new FileOutputStream(fFile, true))
+      {
+         out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+      }
+      catch (IOException e)
+      {
+         RenderingHelper.renderLoggingLine("appendLine: problem writing. e=" + e);
+      }
+   }
+
+   /**
+    * Write the given entries to a temporary file, then move it over the verbose log
+    *
+    * @param pSortedEntries the packed sequences to write, in the order to write them
+    */
+   private void rewriteFile(final long[] pSortedEntries)
+   {
+      final File temporaryFile = new File(fFile.getPath() + TEMPORARY_FILE_SUFFIX);
+      try
+      {
+         try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temporaryFile), StandardCharsets.UTF_8)))
+         {
+            final StringBuilder sb = new StringBuilder();
+            for (long sequence : pSortedEntries)
+            {
+               sb.setLength(0);
+               appendVerboseRepresentation(sb, sequence);
+               sb.append('\n');
+               writer.append(sb);
+            }
+         }
+         Files.move(temporaryFile.toPath(), fFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+         fDroppedLineCount.set(0);
+      }
+      catch (IOException e)
+      {
+         RenderingHelper.renderLoggingLine("rewriteFile: problem writing. e=" + e);
+      }
+   }
+
+   /**
+    * @param pStringBuilder the builder to append to
+    * @param pSequence      a packed move sequence
+    */
+   private static void appendVerboseRepresentation(final StringBuilder pStringBuilder, final long pSequence)
+   {
+      final int length = TicTacToeMoveSequence.length(pSequence);
+      for (int i = 0; i < length; i++)
+      {
+         final int cellNumber = TicTacToeMoveSequence.moveAt(pSequence, i);
+         if (i > 0)
+         {
+            pStringBuilder.append('-');
+         }
+         pStringBuilder.append('(').append(getRow(cellNumber)).append(',').append(getColumn(cellNumber)).append(')');
+      }
+   }
+
+   /**
+    * @param pCellNumber a 1-based cell number
+    * @return the 1-based row that corresponds to the given cell number
+    */
+   private static int getRow(final int pCellNumber)
+   {
+      return (pCellNumber - 1) / 3 + 1;
+   }
+
+   /**
+    * @param pCellNumber a 1-based cell number
+    * @return the 1-based column that corresponds to the given cell number
+    */
+   private static int getColumn(final int pCellNumber)
+   {
+      return (pCellNumber - 1) % 3 + 1;
+   }
+}
@@ -0,0 +1,65 @@
+package com.games.tictactoe;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for the Zobrist hashing of TicTacToe positions.
+ * <p>
+ * Each pairing of a cell with X or O has its own random 64-bit key, and the hash of a position is the XOR of the keys
+ * of its selected cells.  Selecting a cell, or clearing it again, is then a single XOR.  The keys come from a fixed
+ * seed, so a position hashes the same way in every run.
+ * <p>
+ * The hash of a position as seen through each of the 8 symmetries (see TicTacToeSymmetry) is kept up in the same way,
+ * using keys indexed by the cell that the symmetry moves each cell to.  The smallest of those 8 hashes is the same for
+ * every variant of a position, so it serves as a canonical hash.
+ */
+final class TicTacToeZobrist
+{
+
+
+   private static final long SEED = 0x5454545A4F42524CL;
+
+   // Indexed by ((symmetry * 3 + position digit) * CELL_SLOTS + cellNumber); the key for that cell and status, as
+   // seen through that symmetry.  The keys for unselected cells are 0
+   private static final int CELL_SLOTS = TicTacToeLookupTables.MAX_CELLS + 1;
+   private static final long[] KEYS = new long[TicTacToeSymmetry.SYMMETRY_COUNT * 3 * CELL_SLOTS];
+
+   static
+   {
+      final SplittableRandom random = new SplittableRandom(SEED);
+      final long[] identityKeys = new long[3 * CELL_SLOTS];
+      for (int cellNumber = 1; cellNumber < CELL_SLOTS; cellNumber++)
+      {
+         identityKeys[TicTacToeLookupTables.DIGIT_X * CELL_SLOTS + cellNumber] = random.nextLong();
+         identityKeys[TicTacToeLookupTables.DIGIT_O * CELL_SLOTS + cellNumber] = random.nextLong();
+      }
+      for (int symmetry = 0; symmetry < TicTacToeSymmetry.SYMMETRY_COUNT; symmetry++)
+      {
+         for (int digit = 0; digit < 3; digit++)
+         {
+            for (int cellNumber = 1; cellNumber < CELL_SLOTS; cellNumber++)
+            {
+               KEYS[(symmetry * 3 + digit) * CELL_SLOTS + cellNumber] =
+                     identityKeys[digit * CELL_SLOTS + TicTacToeSymmetry.getSymmetricCell(symmetry, cellNumber)];
+            }
+         }
+      }
+   }
+
+   private TicTacToeZobrist()
+   {
+      // static tables only
+   }
+
+   /**
+    * @param pSymmetry   a symmetry, from 0 to TicTacToeSymmetry.SYMMETRY_COUNT - 1; 0 is the identity
+    * @param pDigit      the position digit of a cell status (see TicTacToeLookupTables)
+    * @param pCellNumber a 1-based cell number
+    * @return the key to XOR into the hash seen through the given symmetry, when the given cell takes the given status,
+    * or to XOR out of it when the cell loses that status
+    */
+   static long getKey(final int pSymmetry, final int pDigit, final int pCellNumber)
+   {
+      return KEYS[(pSymmetry * 3 + pDigit) * CELL_SLOTS + pCellNumber];
+   }
+}